@@ -0,0 +1,21 @@
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.IOException;
+
+/**
+ * Runs the engine benchmarks with the allocation profiler always attached,
+ * so every run reports bytes allocated per operation next to its timings.
+ * Accepts the usual JMH command line, for example a benchmark name regex to
+ * run a subset, {@code -rf json -rff baseline.json} to save a baseline, or
+ * {@code -l} to list the benchmarks without running them.
+ */
+public class Main {
+    public static void main(String[] args) throws RunnerException, IOException {
+        String[] withProfiler = new String[args.length + 2];
+        withProfiler[0] = "-prof";
+        withProfiler[1] = "gc";
+        System.arraycopy(args, 0, withProfiler, 2, args.length);
+
+        org.openjdk.jmh.Main.main(withProfiler);
+    }
+}
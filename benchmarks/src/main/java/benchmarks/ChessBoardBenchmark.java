@@ -0,0 +1,51 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures setting up, comparing and hashing whole boards
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ChessBoardBenchmark {
+
+    private ChessBoard board;
+    private ChessBoard same;
+    private ChessBoard different;
+
+    @Setup
+    public void setUp() {
+        board = Positions.middlegame().getBoard();
+        same = Positions.middlegame().getBoard();
+        different = Positions.start().getBoard();
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        ChessBoard fresh = new ChessBoard();
+        fresh.resetBoard();
+        return fresh;
+    }
+
+    @Benchmark
+    public boolean equalBoards() {
+        return board.equals(same);
+    }
+
+    @Benchmark
+    public boolean differentBoards() {
+        return board.equals(different);
+    }
+
+    @Benchmark
+    public int boardHashCode() {
+        return board.hashCode();
+    }
+}
@@ -0,0 +1,115 @@
+package benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rules engine calls the server makes while a game is played
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ChessGameBenchmark {
+
+    private final ChessPosition queen = new ChessPosition(1, 4);
+    private final ChessPosition bishop = new ChessPosition(4, 3);
+    private final ChessPosition knight = new ChessPosition(3, 6);
+
+    private final ChessMove whiteOut = new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null);
+    private final ChessMove blackOut = new ChessMove(new ChessPosition(6, 3), new ChessPosition(8, 2), null);
+    private final ChessMove whiteBack = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+    private final ChessMove blackBack = new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null);
+
+    private ChessGame middlegame;
+    private ChessGame checkmate;
+    private ChessGame stalemate;
+    private ChessGame shuffled;
+    private ChessGame other;
+
+    @Setup
+    public void setUp() {
+        middlegame = Positions.middlegame();
+        checkmate = Positions.checkmate();
+        stalemate = Positions.stalemate();
+        shuffled = Positions.middlegame();
+        other = Positions.middlegame();
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        blackhole.consume(middlegame.validMoves(queen));
+        blackhole.consume(middlegame.validMoves(bishop));
+        blackhole.consume(middlegame.validMoves(knight));
+    }
+
+    @Benchmark
+    public int validMovesAllPieces() {
+        int total = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                Collection<ChessMove> moves = middlegame.validMoves(new ChessPosition(row, col));
+                if (moves != null) {
+                    total += moves.size();
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Both knights go out and back, which returns to the same position after
+     * four moves. Resetting the board afterwards clears the repetition
+     * history, so it does not grow over the run.
+     */
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        shuffled.makeMove(whiteOut);
+        shuffled.makeMove(blackOut);
+        shuffled.makeMove(whiteBack);
+        shuffled.makeMove(blackBack);
+        shuffled.setBoard(shuffled.getBoard());
+        return shuffled;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return middlegame.isInCheck(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return checkmate.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateNotInCheck() {
+        return middlegame.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return stalemate.isInStalemate(ChessGame.TeamColor.BLACK);
+    }
+
+    @Benchmark
+    public boolean isInStalemateWithMoves() {
+        return middlegame.isInStalemate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean equalGames() {
+        return middlegame.equals(other);
+    }
+
+    @Benchmark
+    public int gameHashCode() {
+        return middlegame.hashCode();
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import chess.*;
+
+/**
+ * Fixed positions shared by the benchmarks, so results from different runs
+ * and different engine versions are measured on the same boards
+ */
+public final class Positions {
+
+    private Positions() {
+    }
+
+    /**
+     * @return a new game at the standard starting position
+     */
+    public static ChessGame start() {
+        return new ChessGame();
+    }
+
+    /**
+     * @return a new game after 1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5, white to move,
+     * with every piece still on the board and open lines for all of them
+     */
+    public static ChessGame middlegame() {
+        return play(new ChessGame(),
+                2, 5, 4, 5,
+                7, 5, 5, 5,
+                1, 7, 3, 6,
+                8, 2, 6, 3,
+                1, 6, 4, 3,
+                8, 6, 5, 3);
+    }
+
+    /**
+     * @return a new game after 1. f3 e5 2. g4 Qh4, with white checkmated
+     */
+    public static ChessGame checkmate() {
+        return play(new ChessGame(),
+                2, 6, 3, 6,
+                7, 5, 5, 5,
+                2, 7, 4, 7,
+                8, 4, 4, 8);
+    }
+
+    /**
+     * @return a new game with black's king on h8 stalemated by a white queen
+     * on f7 and king on g6, black to move
+     */
+    public static ChessGame stalemate() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(7, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        board.addPiece(new ChessPosition(6, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        return game;
+    }
+
+    /**
+     * Plays moves given as start row, start column, end row, end column
+     * groups, which must all be legal
+     */
+    static ChessGame play(ChessGame game, int... squares) {
+        try {
+            for (int i = 0; i < squares.length; i += 4) {
+                game.makeMove(new ChessMove(new ChessPosition(squares[i], squares[i + 1]),
+                        new ChessPosition(squares[i + 2], squares[i + 3]), null));
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("benchmark position has an illegal move", e);
+        }
+        return game;
+    }
+}
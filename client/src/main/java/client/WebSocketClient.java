@@ -83,6 +83,13 @@ public class WebSocketClient extends Endpoint {
         sendCommand(command);
     }
 
+    public void hint(String authToken, int gameID) throws IOException {
+        UserGameCommand command = new UserGameCommand(
+                UserGameCommand.CommandType.HINT, authToken, gameID
+        );
+        sendCommand(command);
+    }
+
     private void sendCommand(Object command) throws IOException {
         this.session.getBasicRemote().sendText(gson.toJson(command));
     }
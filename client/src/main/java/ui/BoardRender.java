@@ -169,7 +169,7 @@ public class BoardRender {
 
         for (int col = 1; col <= 8; col++) {
             int actualCol = isWhite ? col : (9 - col);
-            ChessPosition position = new ChessPosition(row, actualCol);
+            ChessPosition position = ChessPosition.of(row, actualCol);
 
             if (position.equals(selectedPiece) || highlights.contains(position)) {
                 System.out.print(SET_BG_COLOR_GREEN);
@@ -76,6 +76,10 @@ public class GamePlayUI implements NotificationHandler {
                 highlightMoves(tokens);
                 yield true;
             }
+            case "hint" -> {
+                requestHint();
+                yield true;
+            }
             default -> {
                 System.out.println("Unknown command. Type 'help'.");
                 yield true;
@@ -89,6 +93,7 @@ public class GamePlayUI implements NotificationHandler {
                   'redraw' - Redraw the chess board
                   'move' <from> <to> [promotion] - Make a move (e.g., 'move e2 e4' or 'move e7 e8 q')
                   'highlight' <position> - Show legal moves for a piece (e.g., 'highlight e2')
+                  'hint' - Ask the server's engine to suggest a move
                   'resign' - Forfeit the game
                   'leave' - Leave the game (return to main menu)
                   'help' - Show this help message
@@ -145,7 +150,7 @@ public class GamePlayUI implements NotificationHandler {
                 promotion = parsePromotion(tokens[3]);
             }
 
-            ChessMove move = new ChessMove(from, to, promotion);
+            ChessMove move = ChessMove.of(from, to, promotion);
             ws.makeMove(authToken, gameID, move);
 
         } catch (Exception e) {
@@ -153,6 +158,15 @@ public class GamePlayUI implements NotificationHandler {
         }
     }
 
+    private void requestHint() {
+        try {
+            ws.hint(authToken, gameID);
+            System.out.println("Asking the engine for a hint...");
+        } catch (Exception e) {
+            System.out.println("Error requesting hint: " + e.getMessage());
+        }
+    }
+
     private void resignGame() {
         if (playerColor == null) {
             System.out.println("Observers cannot resign.");
@@ -212,7 +226,7 @@ public class GamePlayUI implements NotificationHandler {
             throw new IllegalArgumentException("Position out of range");
         }
 
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
     private chess.ChessPiece.PieceType parsePromotion(String piece) {
@@ -1,10 +1,37 @@
+import dataaccess.MySQLGameDAO;
 import server.Server;
+import service.GameImportService;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("import")) {
+            importGames(args);
+            return;
+        }
+
         Server server = new Server();
         server.run(8080);
 
         System.out.println("♕ 240 Chess Server");
     }
-}
\ No newline at end of file
+
+    /**
+     * Imports the PGN files named after "import" into the database
+     */
+    private static void importGames(String[] args) throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            files.add(Path.of(args[i]));
+        }
+        long start = System.nanoTime();
+        var result = new GameImportService(new MySQLGameDAO())
+                .importFiles(files, Runtime.getRuntime().availableProcessors());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Imported " + result.imported() + " games, skipped " + result.skipped()
+                + ", in " + millis + " ms");
+    }
+}
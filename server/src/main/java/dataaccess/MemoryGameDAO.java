@@ -2,13 +2,18 @@ package dataaccess;
 import dataaccess.exceptions.DataAccessException;
 import dataaccess.interfaces.GameDAO;
 import model.GameData;
+import model.GameSummary;
 import chess.ChessGame;
+import chess.pgn.PgnGame;
+
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class MemoryGameDAO implements GameDAO {
     private final Map<Integer, GameData> games = new HashMap<>();
     private final AtomicInteger nextGameId = new AtomicInteger(1);
+    private final List<PgnGame> archive = Collections.synchronizedList(new ArrayList<>());
     
     @Override
     public GameData insertGame(String gameName) throws DataAccessException {
@@ -18,6 +23,22 @@ public class MemoryGameDAO implements GameDAO {
         return game;
     }
 
+    @Override
+    public void insertArchivedGames(Collection<PgnGame> newGames) throws DataAccessException {
+        archive.addAll(newGames);
+    }
+
+    @Override
+    public void forEachArchivedGame(ArchiveAction action) throws DataAccessException, IOException {
+        List<PgnGame> archived;
+        synchronized (archive) {
+            archived = new ArrayList<>(archive);
+        }
+        for (PgnGame game : archived) {
+            action.accept(game);
+        }
+    }
+
     @Override
     public void updateGame(int gameID, GameData game) throws DataAccessException {
         if (!games.containsKey(gameID)) {
@@ -26,6 +47,16 @@ public class MemoryGameDAO implements GameDAO {
         games.put(gameID, game);
     }
     
+    @Override
+    public void appendMove(int gameID, ChessGame game) throws DataAccessException {
+        GameData existing = games.get(gameID);
+        if (existing == null) {
+            throw new DataAccessException("Game not found");
+        }
+        games.put(gameID, new GameData(gameID, existing.whiteUsername(), existing.blackUsername(),
+                existing.gameName(), game));
+    }
+    
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         return games.get(gameID);
@@ -35,11 +66,36 @@ public class MemoryGameDAO implements GameDAO {
     public Collection<GameData> listGames() throws DataAccessException {
         return games.values();
     }
+
+    @Override
+    public Collection<GameSummary> listGameSummaries() throws DataAccessException {
+        List<GameSummary> summaries = new ArrayList<>(games.size());
+        for (GameData game : games.values()) {
+            summaries.add(new GameSummary(game.gameID(), game.whiteUsername(), game.blackUsername(),
+                    game.gameName()));
+        }
+        return summaries;
+    }
+
+    @Override
+    public void forEachGame(String username, GameAction action) throws DataAccessException, IOException {
+        List<GameData> played = new ArrayList<>();
+        for (GameData game : games.values()) {
+            if (username.equals(game.whiteUsername()) || username.equals(game.blackUsername())) {
+                played.add(game);
+            }
+        }
+        played.sort(Comparator.comparingInt(GameData::gameID));
+        for (GameData game : played) {
+            action.accept(game);
+        }
+    }
     
     
     @Override
     public void clear() throws DataAccessException {
         games.clear();
+        archive.clear();
         nextGameId.set(1);
     }
 }
\ No newline at end of file
@@ -1,18 +1,65 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.pgn.PgnGame;
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 import dataaccess.exceptions.DataAccessException;
 import dataaccess.interfaces.GameDAO;
 import model.GameData;
+import model.GameSummary;
 
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Stores games in MySQL, each game's state in the compact binary form
+ * written by {@link ChessGame#toBytes}.
+ * <p>
+ * Moves made in play are appended to the game_moves table one row at a time
+ * rather than rewriting the game, so making a move writes two bytes instead
+ * of the whole game. Every {@link #SNAPSHOT_INTERVAL} moves the stored
+ * game_state is brought up to date, so a load joins at most that many move
+ * rows. The game_state is the whole game, not just its position:
+ * {@link ChessGame#fromBytes} replays every move from the start, then the
+ * rows after it are replayed too. The interval limits rows read, not moves
+ * replayed; replaying is cheap next to the query.
+ * <p>
+ * Games imported from PGN are kept in a separate archived_games table with
+ * their tags, so they never appear among or mix with the games played here.
+ */
 public class MySQLGameDAO implements GameDAO {
 
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+    private static final Type TAGS_TYPE = new TypeToken<LinkedHashMap<String, String>>() {}.getType();
+
+    /**
+     * Moves between rewrites of a game's stored state, which bounds how many
+     * game_moves rows a load reads
+     */
+    static final int SNAPSHOT_INTERVAL = 20;
+
+    /**
+     * Reads games with the moves made since their snapshots, one row per move
+     * and a row with a null move for a game with none
+     */
+    private static final String SELECT_GAMES = """
+            SELECT g.game_id, g.white_username, g.black_username, g.game_name, g.game_state, m.move
+            FROM games g
+            LEFT JOIN game_moves m ON m.game_id = g.game_id AND m.ply > g.snapshot_ply
+            """;
+
     public MySQLGameDAO() {
         configureDatabase();
     }
@@ -27,17 +74,167 @@ public class MySQLGameDAO implements GameDAO {
                     white_username VARCHAR(255),
                     black_username VARCHAR(255),
                     game_name VARCHAR(255) NOT NULL,
-                    game_status JSON NOT NULL
+                    game_state BLOB NOT NULL,
+                    snapshot_ply INT NOT NULL DEFAULT 0
                     )""";
                 try (var statement = conn.prepareStatement(createGamesTable)) {
                     statement.executeUpdate();
                 }
+                migrateJsonGames(conn);
+                if (!hasColumn(conn, "snapshot_ply")) {
+                    var addSnapshotPly = "ALTER TABLE games ADD COLUMN snapshot_ply INT NOT NULL DEFAULT 0";
+                    try (var statement = conn.prepareStatement(addSnapshotPly)) {
+                        statement.executeUpdate();
+                    }
+                }
+
+                var createMovesTable = """
+                    CREATE TABLE IF NOT EXISTS game_moves (
+                    game_id INT NOT NULL,
+                    ply INT NOT NULL,
+                    move SMALLINT NOT NULL,
+                    PRIMARY KEY (game_id, ply),
+                    FOREIGN KEY (game_id) REFERENCES games(game_id) ON DELETE CASCADE
+                    )""";
+                try (var statement = conn.prepareStatement(createMovesTable)) {
+                    statement.executeUpdate();
+                }
+
+                var createArchiveTable = """
+                    CREATE TABLE IF NOT EXISTS archived_games (
+                    archive_id INT AUTO_INCREMENT PRIMARY KEY,
+                    tags TEXT NOT NULL,
+                    result VARCHAR(7) NOT NULL,
+                    game_state BLOB NOT NULL
+                    )""";
+                try (var statement = conn.prepareStatement(createArchiveTable)) {
+                    statement.executeUpdate();
+                }
             }
         } catch (SQLException | DataAccessException ex) {
             throw new RuntimeException("Unable to configure database: " + ex.getMessage());
         }
     }
 
+    /**
+     * Converts a games table from when games were stored as Gson JSON in a
+     * game_status column to the binary game_state column. Rows are converted
+     * a batch at a time so a large table is never read into memory at once,
+     * and a conversion that stops part way picks up where it left off.
+     */
+    private void migrateJsonGames(Connection conn) throws SQLException, DataAccessException {
+        if (!hasColumn(conn, "game_status")) {
+            return;
+        }
+        if (!hasColumn(conn, "game_state")) {
+            try (var addColumn = conn.prepareStatement("ALTER TABLE games ADD COLUMN game_state BLOB")) {
+                addColumn.executeUpdate();
+            }
+        }
+
+        var select = """
+                SELECT game_id, game_status FROM games
+                WHERE game_state IS NULL AND game_id > ?
+                ORDER BY game_id
+                LIMIT ?
+                """;
+        try (var selectJson = conn.prepareStatement(select);
+             var updateState = conn.prepareStatement("UPDATE games SET game_state = ? WHERE game_id = ?")) {
+            var gson = new Gson();
+            int lastID = 0;
+            int converted;
+            do {
+                selectJson.setInt(1, lastID);
+                selectJson.setInt(2, MIGRATION_BATCH_SIZE);
+                converted = 0;
+                try (var rs = selectJson.executeQuery()) {
+                    while (rs.next()) {
+                        lastID = rs.getInt("game_id");
+                        ChessGame game;
+                        try {
+                            game = gson.fromJson(rs.getString("game_status"), ChessGame.class);
+                        } catch (RuntimeException e) {
+                            throw new DataAccessException("Couldn't convert game " + lastID + ": " + e.getMessage());
+                        }
+                        updateState.setBytes(1, game.toBytes());
+                        updateState.setInt(2, lastID);
+                        updateState.addBatch();
+                        converted++;
+                    }
+                }
+                updateState.executeBatch();
+            } while (converted == MIGRATION_BATCH_SIZE);
+        }
+
+        try (var dropJson = conn.prepareStatement(
+                "ALTER TABLE games DROP COLUMN game_status, MODIFY game_state BLOB NOT NULL")) {
+            dropJson.executeUpdate();
+        }
+    }
+
+    private static boolean hasColumn(Connection conn, String column) throws SQLException {
+        var statement = """
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'games' AND column_name = ?
+                """;
+        try (var findColumn = conn.prepareStatement(statement)) {
+            findColumn.setString(1, column);
+            try (var rs = findColumn.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private interface GameSink<E extends Exception> {
+        void accept(GameData game) throws E;
+    }
+
+    /**
+     * Reads games from the rows of a {@link #SELECT_GAMES} query ordered by
+     * game and ply, replaying each game's moves since its snapshot
+     */
+    private static <E extends Exception> void readGames(ResultSet rs, GameSink<E> sink)
+            throws SQLException, DataAccessException, E {
+        GameData current = null;
+        while (rs.next()) {
+            int gameID = rs.getInt("game_id");
+            if (current == null || current.gameID() != gameID) {
+                if (current != null) {
+                    sink.accept(current);
+                }
+                current = new GameData(
+                        gameID,
+                        rs.getString("white_username"),
+                        rs.getString("black_username"),
+                        rs.getString("game_name"),
+                        readGame(rs.getBytes("game_state"))
+                );
+            }
+            int move = rs.getInt("move");
+            if (!rs.wasNull()) {
+                try {
+                    current.game().makeMove(Move.toChessMove(move));
+                } catch (InvalidMoveException | IndexOutOfBoundsException e) {
+                    throw new DataAccessException("Couldn't replay a move of game " + gameID + ": " + e.getMessage());
+                }
+            }
+        }
+        if (current != null) {
+            sink.accept(current);
+        }
+    }
+
+    /**
+     * Reads a game stored by {@link ChessGame#toBytes}
+     */
+    private static ChessGame readGame(byte[] bytes) throws DataAccessException {
+        try {
+            return ChessGame.fromBytes(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new DataAccessException("Couldn't read game: " + e.getMessage());
+        }
+    }
+
     @Override
     public GameData insertGame(String gameName) throws DataAccessException {
         if(gameName == null || gameName.isEmpty()){
@@ -45,18 +242,16 @@ public class MySQLGameDAO implements GameDAO {
         }
         try (var conn = DatabaseManager.getConnection()) {
             var statement = """
-                    INSERT INTO games (game_name, game_status)
+                    INSERT INTO games (game_name, game_state)
                     VALUES (?, ?)
                     """;
             try (var insertGameData = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS)) {
-                var gson = new Gson();
                 var newGame = new ChessGame();
-                var gameJson = gson.toJson(newGame);
-                
+
                 insertGameData.setString(1, gameName);
-                insertGameData.setString(2, gameJson);
+                insertGameData.setBytes(2, newGame.toBytes());
                 insertGameData.executeUpdate();
-                
+
                 var generatedKeys = insertGameData.getGeneratedKeys();
                 if (generatedKeys.next()) {
                     int gameId = generatedKeys.getInt(1);
@@ -70,31 +265,63 @@ public class MySQLGameDAO implements GameDAO {
         }
     }
 
+    @Override
+    public void insertArchivedGames(Collection<PgnGame> games) throws DataAccessException {
+        var gson = new Gson();
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "INSERT INTO archived_games (tags, result, game_state) VALUES (?, ?, ?)";
+            conn.setAutoCommit(false);
+            try (var insertGames = conn.prepareStatement(statement)) {
+                for (PgnGame game : games) {
+                    insertGames.setString(1, gson.toJson(game.tags()));
+                    insertGames.setString(2, game.result());
+                    insertGames.setBytes(3, game.game().toBytes());
+                    insertGames.addBatch();
+                }
+                insertGames.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Couldn't archive games: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void forEachArchivedGame(ArchiveAction action) throws DataAccessException, IOException {
+        var gson = new Gson();
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "SELECT tags, result, game_state FROM archived_games ORDER BY archive_id";
+            try (var forEachStmt = conn.prepareStatement(statement,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Have the driver stream rows instead of reading the whole archive first
+                forEachStmt.setFetchSize(Integer.MIN_VALUE);
+                var rs = forEachStmt.executeQuery();
+                while (rs.next()) {
+                    Map<String, String> tags = gson.fromJson(rs.getString("tags"), TAGS_TYPE);
+                    action.accept(new PgnGame(tags, readGame(rs.getBytes("game_state")), rs.getString("result")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Couldn't read archived games: " + e.getMessage());
+        }
+    }
+
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         if(gameID < 0){
             throw new DataAccessException("Invalid gameID");
         }
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = """
-                    SELECT * FROM games WHERE game_id = ?
-                    """;
+            var statement = SELECT_GAMES + "WHERE g.game_id = ? ORDER BY m.ply";
             try (var getGameByID = conn.prepareStatement(statement)) {
                 getGameByID.setInt(1, gameID);
                 var result = getGameByID.executeQuery();
-                if (result.next()) {
-                    var gson = new Gson();
-                    var chessGameString = gson.fromJson(result.getString("game_status"), ChessGame.class);
-                    return new GameData(
-                            result.getInt("game_id"),
-                            result.getString("white_username"),
-                            result.getString("black_username"),
-                            result.getString("game_name"),
-                            chessGameString
-                    );
-                } else {
-                    return null;
-                }
+                var games = new ArrayList<GameData>(1);
+                readGames(result, games::add);
+                return games.isEmpty() ? null : games.get(0);
             }
         }
         catch (SQLException e) {
@@ -106,33 +333,62 @@ public class MySQLGameDAO implements GameDAO {
     public Collection<GameData> listGames() throws DataAccessException {
         var games = new ArrayList<GameData>();
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = """
-                SELECT game_id, white_username, black_username, game_name, game_status
-                FROM games
-                """;
+            var statement = SELECT_GAMES + "ORDER BY g.game_id, m.ply";
             try (var listGamesStmt = conn.prepareStatement(statement)) {
                 var rs = listGamesStmt.executeQuery();
-                var gson = new Gson();
+                readGames(rs, games::add);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Couldn't list games");
+        }
+        return games;
+    }
 
+    @Override
+    public Collection<GameSummary> listGameSummaries() throws DataAccessException {
+        var summaries = new ArrayList<GameSummary>();
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = """
+                SELECT game_id, white_username, black_username, game_name
+                FROM games
+                ORDER BY game_id
+                """;
+            try (var listSummariesStmt = conn.prepareStatement(statement)) {
+                var rs = listSummariesStmt.executeQuery();
                 while (rs.next()) {
-                    try {
-                        var chessGame = gson.fromJson(rs.getString("game_status"), ChessGame.class);
-                        games.add(new GameData(
-                                rs.getInt("game_id"),
-                                rs.getString("white_username"),
-                                rs.getString("black_username"),
-                                rs.getString("game_name"),
-                                chessGame
-                        ));
-                    } catch (Exception e) {
-                        throw new DataAccessException("Couldn't deserialize game!" + e.getMessage());
-                    }
+                    summaries.add(new GameSummary(
+                            rs.getInt("game_id"),
+                            rs.getString("white_username"),
+                            rs.getString("black_username"),
+                            rs.getString("game_name")
+                    ));
                 }
             }
         } catch (SQLException e) {
-            throw new DataAccessException("Couldn't list games");
+            throw new DataAccessException("Couldn't list games: " + e.getMessage());
+        }
+        return summaries;
+    }
+
+    @Override
+    public void forEachGame(String username, GameAction action) throws DataAccessException, IOException {
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = SELECT_GAMES + """
+                WHERE g.white_username = ? OR g.black_username = ?
+                ORDER BY g.game_id, m.ply
+                """;
+            try (var forEachGameStmt = conn.prepareStatement(statement,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Have the driver stream rows instead of reading the whole result first
+                forEachGameStmt.setFetchSize(Integer.MIN_VALUE);
+                forEachGameStmt.setString(1, username);
+                forEachGameStmt.setString(2, username);
+                var rs = forEachGameStmt.executeQuery();
+                readGames(rs, action::accept);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Couldn't list games: " + e.getMessage());
         }
-        return games;
     }
 
     @Override
@@ -143,18 +399,16 @@ public class MySQLGameDAO implements GameDAO {
         try (var conn = DatabaseManager.getConnection()) {
             var statement = """
                 UPDATE games
-                SET white_username = ?, black_username = ?, game_name = ?, game_status = ?
+                SET white_username = ?, black_username = ?, game_name = ?, game_state = ?, snapshot_ply = ?
                 WHERE game_id = ?
                 """;
             try (var updateGame = conn.prepareStatement(statement)) {
-                var gson = new Gson();
-                var gameStatusJSON = gson.toJson(game.game());
-
                 updateGame.setString(1, game.whiteUsername());
                 updateGame.setString(2, game.blackUsername());
                 updateGame.setString(3, game.gameName());
-                updateGame.setString(4, gameStatusJSON);
-                updateGame.setInt(5, gameID);
+                updateGame.setBytes(4, game.game().toBytes());
+                updateGame.setInt(5, game.game().getMoveCount());
+                updateGame.setInt(6, gameID);
 
                 updateGame.executeUpdate();
             }
@@ -164,6 +418,46 @@ public class MySQLGameDAO implements GameDAO {
 
     }
 
+    @Override
+    public void appendMove(int gameID, ChessGame game) throws DataAccessException {
+        ChessMove move = game.getLastMove();
+        if (move == null) {
+            throw new DataAccessException("The game has no move to record");
+        }
+        int ply = game.getMoveCount();
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "INSERT INTO game_moves (game_id, ply, move) VALUES (?, ?, ?)";
+            boolean snapshot = ply % SNAPSHOT_INTERVAL == 0;
+            if (snapshot) {
+                conn.setAutoCommit(false);
+            }
+            try (var insertMove = conn.prepareStatement(statement)) {
+                insertMove.setInt(1, gameID);
+                insertMove.setInt(2, ply);
+                insertMove.setInt(3, Move.encode(move));
+                insertMove.executeUpdate();
+
+                if (snapshot) {
+                    var snapshotStatement = "UPDATE games SET game_state = ?, snapshot_ply = ? WHERE game_id = ?";
+                    try (var updateSnapshot = conn.prepareStatement(snapshotStatement)) {
+                        updateSnapshot.setBytes(1, game.toBytes());
+                        updateSnapshot.setInt(2, ply);
+                        updateSnapshot.setInt(3, gameID);
+                        updateSnapshot.executeUpdate();
+                    }
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                if (snapshot) {
+                    conn.rollback();
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Couldn't record move: " + e.getMessage());
+        }
+    }
+
     @Override
     public void clear() throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
@@ -171,9 +465,12 @@ public class MySQLGameDAO implements GameDAO {
             try (var clearAuth = conn.prepareStatement(statement)) {
                 clearAuth.executeUpdate();
             }
+            try (var clearArchive = conn.prepareStatement("DELETE FROM archived_games")) {
+                clearArchive.executeUpdate();
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
 
     }
-}
\ No newline at end of file
+}
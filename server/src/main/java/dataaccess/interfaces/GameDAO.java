@@ -1,12 +1,58 @@
 package dataaccess.interfaces;
+import chess.ChessGame;
+import chess.pgn.PgnGame;
 import dataaccess.exceptions.DataAccessException;
 import model.GameData;
+import model.GameSummary;
+
+import java.io.IOException;
 import java.util.Collection;
 
 public interface GameDAO {
     GameData insertGame(String gameName) throws DataAccessException;
+
+    /**
+     * Stores games imported from PGN in the archive, apart from the games
+     * played here. Archived games keep all their tags, result included, and
+     * are never listed in the lobby, seated to a user or played on.
+     */
+    void insertArchivedGames(Collection<PgnGame> games) throws DataAccessException;
+
+    /**
+     * Passes every archived game to {@code action} in the order they were
+     * stored, reading them one at a time
+     */
+    void forEachArchivedGame(ArchiveAction action) throws DataAccessException, IOException;
     GameData getGame(int gameID) throws DataAccessException;
     Collection<GameData> listGames() throws DataAccessException;
+
+    /**
+     * Lists every game's ID, players and name without reading its board,
+     * which is all the lobby shows
+     */
+    Collection<GameSummary> listGameSummaries() throws DataAccessException;
+
+    /**
+     * Passes each game a user plays in, on either side, to {@code action} in
+     * ID order, reading them one at a time so the games need not fit in
+     * memory together
+     */
+    void forEachGame(String username, GameAction action) throws DataAccessException, IOException;
     void updateGame(int gameID, GameData game) throws DataAccessException;
+
+    /**
+     * Records the last move made in a game. This only stores the move, so it
+     * is much cheaper than {@link #updateGame}, and leaves the players and
+     * name as they are.
+     */
+    void appendMove(int gameID, ChessGame game) throws DataAccessException;
     void clear() throws DataAccessException;
+
+    interface GameAction {
+        void accept(GameData game) throws IOException;
+    }
+
+    interface ArchiveAction {
+        void accept(PgnGame game) throws IOException;
+    }
 }
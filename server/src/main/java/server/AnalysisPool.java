@@ -0,0 +1,214 @@
+package server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PieceSquareTable;
+import chess.engine.OpeningBook;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.LazySmpSearcher;
+import chess.engine.Tablebase;
+import chess.engine.TranspositionTable;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs engine searches on a fixed set of threads of its own, so analysis
+ * can never take threads from Javalin's HTTP and WebSocket handlers.
+ * <p>
+ * Waiting requests go in a bounded queue. When it is full a new request is
+ * rejected at once instead of waiting, so a burst of requests costs clients
+ * a quick error rather than a long wait. Every search is held to the pool's
+ * time and node budget whatever the request asks for, and can be cancelled,
+ * for example when the client that asked for it disconnects. A cancelled
+ * request that is still waiting gives up its place in the queue at once.
+ * <p>
+ * A request may ask for several threads, up to the pool's limit per search.
+ * The extra ones are Lazy SMP helpers from a separate set of threads, sized
+ * so that every running search can have its full share, and so they never
+ * take a place from a waiting request.
+ * <p>
+ * Positions found in the opening book, if there is one, are answered on the
+ * caller's thread straight from the book without using the pool at all.
+ */
+public class AnalysisPool {
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService helpers;
+    private final LazySmpSearcher searcher;
+    private final int threadsPerSearch;
+    private final SearchLimits maxLimits;
+    private final OpeningBook book;
+    private final int queueCapacity;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * @param threads        number of searches that can run at once
+     * @param queueCapacity  number of requests that can wait for a thread
+     * @param tableMegabytes size of the transposition table the threads share
+     * @param maxLimits      the most any one search may use
+     */
+    public AnalysisPool(int threads, int queueCapacity, int tableMegabytes, SearchLimits maxLimits) {
+        this(threads, 1, queueCapacity, tableMegabytes, maxLimits, null, null, null);
+    }
+
+    /**
+     * @param threads          number of searches that can run at once
+     * @param threadsPerSearch most threads one search may use
+     * @param queueCapacity    number of requests that can wait for a thread
+     * @param tableMegabytes   size of the transposition table the threads share
+     * @param maxLimits        the most any one search may use
+     * @param book             book to answer known openings from, or null
+     * @param tablebase        endgame tables the searches probe, or null
+     * @param weights          evaluation weights for the searches, or null for the defaults
+     */
+    public AnalysisPool(int threads, int threadsPerSearch, int queueCapacity, int tableMegabytes,
+                        SearchLimits maxLimits, OpeningBook book, Tablebase tablebase, PieceSquareTable weights) {
+        if (threadsPerSearch < 1) {
+            throw new IllegalArgumentException("threadsPerSearch must be at least 1");
+        }
+        this.book = book;
+        this.maxLimits = maxLimits;
+        this.queueCapacity = queueCapacity;
+        this.threadsPerSearch = threadsPerSearch;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), analysisThreads("analysis-"));
+        this.helpers = threadsPerSearch == 1 ? null : Executors.newFixedThreadPool(
+                threads * (threadsPerSearch - 1), analysisThreads("analysis-helper-"));
+        this.searcher = new LazySmpSearcher(new TranspositionTable(tableMegabytes), tablebase, weights, helpers);
+    }
+
+    /**
+     * Queues a search on one thread. Cancelling the returned future stops the
+     * search if it is running, or removes it from the queue if it has not
+     * started.
+     *
+     * @param game   the position to search; later changes to it are not seen
+     * @param limits the budget requested, reduced to the pool's maximum
+     * @return the search result, once the search finishes
+     * @throws RejectedExecutionException if the queue is full or the pool is shut down
+     */
+    public CompletableFuture<SearchResult> submit(ChessGame game, SearchLimits limits) {
+        return submit(game, limits, 1);
+    }
+
+    /**
+     * Queues a search. Cancelling the returned future stops the search if it
+     * is running, or removes it from the queue if it has not started.
+     *
+     * @param game    the position to search; later changes to it are not seen
+     * @param limits  the budget requested, reduced to the pool's maximum
+     * @param threads threads to search with, reduced to the pool's limit per search
+     * @return the search result, once the search finishes
+     * @throws RejectedExecutionException if the queue is full or the pool is shut down
+     */
+    public CompletableFuture<SearchResult> submit(ChessGame game, SearchLimits limits, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (book != null) {
+            ChessMove bookMove = book.pickMove(game, ThreadLocalRandom.current());
+            if (bookMove != null) {
+                completed.incrementAndGet();
+                return CompletableFuture.completedFuture(new SearchResult(bookMove, 0, 0, 0));
+            }
+        }
+
+        ChessGame position = new ChessGame(game);
+        SearchLimits budget = new SearchLimits(
+                Math.min(limits.maxDepth(), maxLimits.maxDepth()),
+                Math.min(limits.maxMillis(), maxLimits.maxMillis()),
+                Math.min(limits.maxNodes(), maxLimits.maxNodes()));
+        int searchThreads = Math.min(threads, threadsPerSearch);
+        AtomicBoolean cancel = new AtomicBoolean();
+        CompletableFuture<SearchResult> result = new CompletableFuture<>();
+        Runnable task = () -> {
+            if (cancel.get()) {
+                return;
+            }
+            try {
+                SearchResult searchResult = searcher.search(position, budget, searchThreads, cancel);
+                // Counted before the caller is woken, so its stats() already include this search
+                completed.incrementAndGet();
+                if (!result.complete(searchResult)) {
+                    completed.decrementAndGet();
+                }
+            } catch (Throwable e) {
+                // Even an Error must answer the request, or its client waits forever
+                result.completeExceptionally(e);
+            }
+        };
+        result.whenComplete((searchResult, error) -> {
+            if (result.isCancelled()) {
+                cancel.set(true);
+                // A request still waiting should not keep its place in the queue
+                executor.remove(task);
+                cancelled.incrementAndGet();
+            }
+        });
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * @return a snapshot of the pool's load and counters
+     */
+    public Stats stats() {
+        return new Stats(executor.getActiveCount(), executor.getQueue().size(), queueCapacity,
+                completed.get(), rejected.get(), cancelled.get());
+    }
+
+    /**
+     * Stops accepting requests and drops the ones still waiting. Running
+     * searches end within their budget.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    /**
+     * @param active        searches running now
+     * @param queued        requests waiting for a thread
+     * @param queueCapacity most requests that can wait
+     * @param completed     searches finished since the pool started
+     * @param rejected      requests turned away because the queue was full
+     * @param cancelled     requests cancelled before they finished
+     */
+    public record Stats(int active, int queued, int queueCapacity, long completed, long rejected, long cancelled) {
+    }
+
+    /**
+     * Daemon threads below normal priority, so analysis never keeps the
+     * server alive and yields to request handling under load
+     */
+    private static ThreadFactory analysisThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+    }
+}
@@ -7,16 +7,38 @@ import dataaccess.exceptions.DataAccessException;
 import dataaccess.interfaces.AuthDAO;
 import dataaccess.interfaces.GameDAO;
 import dataaccess.interfaces.UserDAO;
+import chess.PieceSquareTable;
+import chess.engine.OpeningBook;
+import chess.engine.SearchLimits;
+import chess.engine.Tablebase;
+import chess.pgn.PgnWriter;
 import io.javalin.*;
 import io.javalin.http.Context;
 import dataaccess.*;
 import service.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
 
 public class Server {
 
+    // Engine analysis limits, shared by every client of this server
+    private static final int ANALYSIS_THREADS_PER_SEARCH = 2;
+    private static final int ANALYSIS_QUEUE_CAPACITY = 32;
+    private static final int ANALYSIS_TABLE_MEGABYTES = 16;
+    private static final SearchLimits ANALYSIS_MAX_LIMITS = SearchLimits.millis(5_000).withNodes(10_000_000);
+
+    private static final String PGN_CONTENT_TYPE = "application/x-chess-pgn";
+
     private final Javalin server;
+    private final AnalysisPool analysisPool = new AnalysisPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), ANALYSIS_THREADS_PER_SEARCH,
+            ANALYSIS_QUEUE_CAPACITY, ANALYSIS_TABLE_MEGABYTES, ANALYSIS_MAX_LIMITS, loadOpeningBook(),
+            loadTablebase(), loadEvaluationWeights());
     
     // Data Access Objects
     private final UserDAO userDAO = new MySQLUserDAO();
@@ -49,10 +71,15 @@ public class Server {
         server.post("game", ctx -> createGame(ctx));
         server.get("game", ctx -> listGames(ctx));
         server.put("game", ctx -> joinGame(ctx));
+        server.get("game/pgn", ctx -> exportGames(ctx));
+        server.get("analysis", ctx -> {
+            ctx.status(200);
+            ctx.result(new Gson().toJson(analysisPool.stats()));
+        });
 
 
         ConnectionManager connections = new ConnectionManager();
-        WebSocketHandler wsHandler = new WebSocketHandler(gameDAO, authDAO, connections);
+        WebSocketHandler wsHandler = new WebSocketHandler(gameDAO, authDAO, connections, analysisPool);
         server.ws("/ws", ws -> {
             ws.onConnect(ctx -> {
                 ctx.enableAutomaticPings();
@@ -62,6 +89,7 @@ public class Server {
                 wsHandler.onMessage(ctx, ctx.message());
             });
             ws.onClose(ctx -> {
+                wsHandler.onClose(ctx);
                 System.out.println("WebSocket closed");
             });
             ws.onError(ctx -> {
@@ -108,6 +136,51 @@ public class Server {
     }
 
 
+    /**
+     * Sends the game named by the {@code gameID} query parameter, or every
+     * game the user plays in if there is none, as PGN. With {@code archive=true}
+     * it sends the archive of imported games instead. The games are written
+     * straight to the response as they are read, so it is sent in chunks and
+     * never held whole in memory.
+     */
+    private void exportGames(Context ctx) throws IOException {
+        var serializer = new Gson();
+        ExportGamesResult export;
+        try {
+            String authToken = ctx.header("authorization");
+            String gameParam = ctx.queryParam("gameID");
+            int gameID = gameParam == null ? 0 : Integer.parseInt(gameParam);
+
+            boolean archive = Boolean.parseBoolean(ctx.queryParam("archive"));
+
+            export = gameService.exportGames(new ExportGamesRequest(authToken, gameID, archive));
+
+        } catch (NumberFormatException | BadRequestException e) {
+            ctx.status(400);
+            ctx.result(serializer.toJson(Map.of("message", "Error: bad request")));
+            return;
+        } catch (UnauthorizedException e) {
+            ctx.status(401);
+            ctx.result(serializer.toJson(Map.of("message", "Error: unauthorized")));
+            return;
+        } catch (DataAccessException e) {
+            ctx.status(500);
+            ctx.result(serializer.toJson(Map.of("message", "Error: " + e.getMessage())));
+            return;
+        }
+
+        // Only a checked request starts the PGN, since the status cannot change once games are sent
+        ctx.status(200);
+        ctx.contentType(PGN_CONTENT_TYPE);
+        try (var out = new PgnWriter(new BufferedWriter(
+                new OutputStreamWriter(ctx.outputStream(), StandardCharsets.UTF_8)))) {
+            gameService.writeGames(export, out);
+        } catch (DataAccessException e) {
+            // Part of the export may be sent already, so fail the response rather than end it cleanly
+            throw new IOException("Couldn't read the games to export", e);
+        }
+    }
+
     private void listGames(Context ctx){
         var serializer = new Gson();
         try{
@@ -250,6 +323,51 @@ public class Server {
         }
 
 
+    /**
+     * Maps the opening book named by the {@code chess.openingBook} system
+     * property, if it is set
+     */
+    private static OpeningBook loadOpeningBook() {
+        String file = System.getProperty("chess.openingBook");
+        if (file == null) {
+            return null;
+        }
+        try {
+            return OpeningBook.open(Path.of(file));
+        } catch (IOException e) {
+            System.out.println("Could not open opening book " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Points the engine at the endgame tables in the directory named by the
+     * {@code chess.tablebases} system property, if it is set. Table files are
+     * only mapped once a search reaches a position needing them.
+     */
+    private static Tablebase loadTablebase() {
+        String directory = System.getProperty("chess.tablebases");
+        return directory == null ? null : new Tablebase(Path.of(directory));
+    }
+
+    /**
+     * Reads the evaluation weights named by the {@code chess.evaluationWeights}
+     * system property, if it is set, so the engine can be tuned without
+     * rebuilding the server
+     */
+    private static PieceSquareTable loadEvaluationWeights() {
+        String file = System.getProperty("chess.evaluationWeights");
+        if (file == null) {
+            return null;
+        }
+        try {
+            return PieceSquareTable.load(Path.of(file));
+        } catch (IOException e) {
+            System.out.println("Could not read evaluation weights " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
     public int run(int desiredPort) {
         server.start(desiredPort);
         return server.port();
@@ -257,5 +375,6 @@ public class Server {
 
     public void stop() {
         server.stop();
+        analysisPool.shutdown();
     }
 }
@@ -4,6 +4,8 @@ import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
 import chess.InvalidMoveException;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
 import com.google.gson.Gson;
 import dataaccess.interfaces.AuthDAO;
 import dataaccess.interfaces.GameDAO;
@@ -16,19 +18,31 @@ import websocket.messages.ErrorMessage;
 import websocket.messages.LoadGameMessage;
 import websocket.messages.NotificationMessage;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 public class WebSocketHandler {
+    private static final SearchLimits HINT_LIMITS = SearchLimits.millis(1_000).withNodes(2_000_000);
+    private static final int HINT_THREADS = 2;
+
     private final GameDAO gameDAO;
     private final AuthDAO authDAO;
     private final ConnectionManager connections;
+    private final AnalysisPool analysisPool;
     private final Gson gson = new Gson();
     private final Set<Integer> finishedGames = new HashSet<>();
+    // Analyses still running for each WebSocket session, cancelled if it closes
+    private final Map<String, Set<CompletableFuture<SearchResult>>> pendingAnalyses = new ConcurrentHashMap<>();
 
-    public WebSocketHandler(GameDAO gameDAO, AuthDAO authDAO, ConnectionManager connections) {
+    public WebSocketHandler(GameDAO gameDAO, AuthDAO authDAO, ConnectionManager connections,
+                            AnalysisPool analysisPool) {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
         this.connections = connections;
+        this.analysisPool = analysisPool;
     }
 
     public void onMessage(WsContext ctx, String message) {
@@ -40,7 +54,7 @@ public class WebSocketHandler {
                 case MAKE_MOVE -> handleMakeMove(ctx, message);
                 case RESIGN -> handleResign(ctx, command);
                 case LEAVE -> handleLeave(ctx, command);
-
+                case HINT -> handleHint(ctx, command);
             }
         } catch (Exception e) {
             sendError(ctx, "Error processing message: " + e.getMessage());
@@ -120,15 +134,7 @@ public class WebSocketHandler {
             ChessMove move = command.getMove();
             game.makeMove(move);
 
-            GameData updatedGame = new GameData(
-                    gameData.gameID(),
-                    gameData.whiteUsername(),
-                    gameData.blackUsername(),
-                    gameData.gameName(),
-                    game
-            );
-
-            gameDAO.updateGame(command.getGameID(), updatedGame);
+            gameDAO.appendMove(command.getGameID(), game);
 
             LoadGameMessage loadMsg = new LoadGameMessage(game);
             connections.broadcastToAll(command.getGameID(), gson.toJson(loadMsg));
@@ -142,20 +148,24 @@ public class WebSocketHandler {
             ChessGame.TeamColor opponentColor = (playerColor == ChessGame.TeamColor.WHITE)
                     ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
 
-            if (game.isInCheckmate(opponentColor)) {
-                NotificationMessage checkmateMsg = new NotificationMessage(
-                        getPlayerUsername(gameData, opponentColor) + " is in checkmate!"
-                );
-                connections.broadcastToAll(command.getGameID(), gson.toJson(checkmateMsg));
-
-            if (game.isInCheckmate(opponentColor) || game.isInStalemate(opponentColor)) {
-                finishedGames.add(command.getGameID());
-            }
-            } else if (game.isInCheck(opponentColor)) {
-                NotificationMessage checkMsg = new NotificationMessage(
-                        getPlayerUsername(gameData, opponentColor) + " is in check!"
-                );
-                connections.broadcastToAll(command.getGameID(), gson.toJson(checkMsg));
+            String opponentName = getPlayerUsername(gameData, opponentColor);
+            switch (game.getGameStatus(opponentColor)) {
+                case CHECKMATE -> {
+                    NotificationMessage checkmateMsg = new NotificationMessage(opponentName + " is in checkmate!");
+                    connections.broadcastToAll(command.getGameID(), gson.toJson(checkmateMsg));
+                    finishedGames.add(command.getGameID());
+                }
+                case STALEMATE -> {
+                    NotificationMessage stalemateMsg = new NotificationMessage(opponentName + " is in stalemate!");
+                    connections.broadcastToAll(command.getGameID(), gson.toJson(stalemateMsg));
+                    finishedGames.add(command.getGameID());
+                }
+                case CHECK -> {
+                    NotificationMessage checkMsg = new NotificationMessage(opponentName + " is in check!");
+                    connections.broadcastToAll(command.getGameID(), gson.toJson(checkMsg));
+                }
+                case NORMAL -> {
+                }
             }
 
         } catch (InvalidMoveException e) {
@@ -244,6 +254,68 @@ public class WebSocketHandler {
         }
     }
 
+    public void onClose(WsContext ctx) {
+        Set<CompletableFuture<SearchResult>> pending = pendingAnalyses.remove(ctx.sessionId());
+        if (pending != null) {
+            pending.forEach(analysis -> analysis.cancel(false));
+        }
+    }
+
+    private void handleHint(WsContext ctx, UserGameCommand command) {
+        try {
+            AuthData auth = authDAO.getAuth(command.getAuthToken());
+            if (auth == null) {
+                sendError(ctx, "Error: invalid auth!");
+                return;
+            }
+
+            GameData gameData = gameDAO.getGame(command.getGameID());
+            if (gameData == null) {
+                sendError(ctx, "Error: Game not found");
+                return;
+            }
+
+            if (finishedGames.contains(command.getGameID())) {
+                sendError(ctx, "Sorry, the game is already over!");
+                return;
+            }
+
+            CompletableFuture<SearchResult> analysis;
+            try {
+                analysis = analysisPool.submit(gameData.game(), HINT_LIMITS, HINT_THREADS);
+            } catch (RejectedExecutionException e) {
+                sendError(ctx, "Error: The engine is busy, try again later");
+                return;
+            }
+
+            Set<CompletableFuture<SearchResult>> pending =
+                    pendingAnalyses.computeIfAbsent(ctx.sessionId(), k -> ConcurrentHashMap.newKeySet());
+            pending.add(analysis);
+            if (!ctx.session.isOpen()) {
+                // onClose may have run before this was added, so nothing else would cancel it
+                pendingAnalyses.remove(ctx.sessionId(), pending);
+                pending.forEach(stale -> stale.cancel(false));
+                return;
+            }
+            analysis.whenComplete((result, error) -> {
+                pending.remove(analysis);
+                if (analysis.isCancelled() || !ctx.session.isOpen()) {
+                    return;
+                }
+                if (error != null) {
+                    sendError(ctx, "Error: " + error.getMessage());
+                } else if (result.bestMove() == null) {
+                    sendMessage(ctx, new NotificationMessage("Hint: there are no legal moves"));
+                } else {
+                    sendMessage(ctx, new NotificationMessage("Hint: " + createMoveForWebsocket(result.bestMove())));
+                }
+            });
+
+        } catch (Exception e) {
+            sendError(ctx, "Error: " + e.getMessage());
+        }
+    }
+
     private ChessGame.TeamColor getPlayerColor(GameData gameData, String username) {
         if (username.equals(gameData.whiteUsername())) {
             return ChessGame.TeamColor.WHITE;
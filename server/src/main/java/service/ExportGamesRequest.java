@@ -0,0 +1,7 @@
+package service;
+
+/**
+ * @param gameID  the game to export, or 0 for every game the user plays in
+ * @param archive export every archived game imported from PGN instead
+ */
+public record ExportGamesRequest(String authToken, int gameID, boolean archive) {}
@@ -0,0 +1,9 @@
+package service;
+
+import model.GameData;
+
+/**
+ * @param game    the one game to export, or null for every game the user plays in
+ * @param archive export every archived game instead
+ */
+public record ExportGamesResult(String username, GameData game, boolean archive) {}
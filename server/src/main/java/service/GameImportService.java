@@ -0,0 +1,146 @@
+package service;
+
+import chess.InvalidMoveException;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import dataaccess.exceptions.DataAccessException;
+import dataaccess.interfaces.GameDAO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports archived games from PGN files.
+ * <p>
+ * Imported games go to the archive with all their tags and results, not
+ * among the games played here, so a player's name in a file never seats an
+ * account of the same name in the game.
+ * <p>
+ * Files are read in parallel, one thread per file up to the thread count,
+ * and each thread stores its games in batches, so memory use is one batch
+ * per thread however many games the files hold. Games that cannot be
+ * replayed, for example because they castle, are skipped and counted.
+ */
+public class GameImportService {
+    /**
+     * Games stored per database round trip
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    private final GameDAO gameDAO;
+
+    public GameImportService(GameDAO gameDAO) {
+        this.gameDAO = gameDAO;
+    }
+
+    /**
+     * @param imported games stored
+     * @param skipped  games that could not be replayed
+     */
+    public record ImportResult(long imported, long skipped) {
+        ImportResult plus(ImportResult other) {
+            return new ImportResult(imported + other.imported, skipped + other.skipped);
+        }
+    }
+
+    /**
+     * Imports every game in the given files
+     *
+     * @param files   PGN files
+     * @param threads most files to read at once
+     * @return how many games were imported and skipped
+     * @throws IOException         if a file cannot be read
+     * @throws DataAccessException if games cannot be stored
+     */
+    public ImportResult importFiles(List<Path> files, int threads) throws IOException, DataAccessException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        try {
+            List<Future<ImportResult>> results = new ArrayList<>(files.size());
+            for (Path file : files) {
+                results.add(executor.submit(() -> importFile(file)));
+            }
+            ImportResult total = new ImportResult(0, 0);
+            for (Future<ImportResult> result : results) {
+                total = total.plus(join(result));
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Imports every game in a PGN stream
+     *
+     * @param in the PGN text; it is closed when done
+     * @return how many games were imported and skipped
+     * @throws IOException         if the stream cannot be read
+     * @throws DataAccessException if games cannot be stored
+     */
+    public ImportResult importGames(InputStream in) throws IOException, DataAccessException {
+        try (PgnReader reader = new PgnReader(in)) {
+            return importGames(reader);
+        }
+    }
+
+    private ImportResult importFile(Path file) throws IOException, DataAccessException {
+        try (PgnReader reader = new PgnReader(FileChannel.open(file, StandardOpenOption.READ))) {
+            return importGames(reader);
+        }
+    }
+
+    private ImportResult importGames(PgnReader reader) throws IOException, DataAccessException {
+        List<PgnGame> batch = new ArrayList<>(BATCH_SIZE);
+        long imported = 0;
+        long skipped = 0;
+        while (true) {
+            PgnGame game;
+            try {
+                game = reader.next();
+            } catch (InvalidMoveException e) {
+                skipped++;
+                continue;
+            }
+            if (game == null) {
+                break;
+            }
+            batch.add(game);
+            if (batch.size() == BATCH_SIZE) {
+                gameDAO.insertArchivedGames(batch);
+                imported += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            gameDAO.insertArchivedGames(batch);
+            imported += batch.size();
+        }
+        return new ImportResult(imported, skipped);
+    }
+
+    private static ImportResult join(Future<ImportResult> result) throws IOException, DataAccessException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof DataAccessException data) {
+                throw data;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -5,8 +5,13 @@ import dataaccess.exceptions.BadRequestException;
 import dataaccess.exceptions.DataAccessException;
 import dataaccess.interfaces.AuthDAO;
 import dataaccess.interfaces.GameDAO;
+import chess.pgn.PgnWriter;
 import model.*;
+
+import java.io.IOException;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class GameService {
     private final GameDAO gameDAO;
@@ -23,7 +28,7 @@ public class GameService {
             throw new UnauthorizedException("Error: unauthorized");
         }
         
-        Collection<GameData> games = gameDAO.listGames();
+        Collection<GameSummary> games = gameDAO.listGameSummaries();
         return new ListGamesResult(games);
     }
 
@@ -97,5 +102,53 @@ public class GameService {
         gameDAO.updateGame(request.gameID(), updatedGame);
     }
 
+    /**
+     * Checks an export request, so that it can be refused before any of the
+     * export is sent
+     *
+     * @return the export, to be written with {@link #writeGames}
+     */
+    public ExportGamesResult exportGames(ExportGamesRequest request)
+            throws UnauthorizedException, BadRequestException, DataAccessException {
+        AuthData auth = authDAO.getAuth(request.authToken());
+        if (auth == null) {
+            throw new UnauthorizedException("Error: unauthorized");
+        }
+        if (request.gameID() < 0 || (request.archive() && request.gameID() != 0)) {
+            throw new BadRequestException("Error: bad request");
+        }
+        if (request.gameID() == 0) {
+            return new ExportGamesResult(auth.username(), null, request.archive());
+        }
 
+        GameData game = gameDAO.getGame(request.gameID());
+        if (game == null) {
+            throw new BadRequestException("Error: bad request");
+        }
+        return new ExportGamesResult(auth.username(), game, false);
+    }
+
+    /**
+     * Writes a checked export as PGN. Games are read and written one at a
+     * time, so a bulk export only holds one game in memory.
+     */
+    public void writeGames(ExportGamesResult export, PgnWriter out) throws DataAccessException, IOException {
+        if (export.archive()) {
+            // Archived games keep their own tags and result
+            gameDAO.forEachArchivedGame(out::write);
+        } else if (export.game() == null) {
+            gameDAO.forEachGame(export.username(), game -> writeGame(game, out));
+        } else {
+            writeGame(export.game(), out);
+        }
+        out.flush();
+    }
+
+    private static void writeGame(GameData game, PgnWriter out) throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", game.gameName());
+        tags.put("White", game.whiteUsername());
+        tags.put("Black", game.blackUsername());
+        out.write(tags, game.game());
+    }
 }
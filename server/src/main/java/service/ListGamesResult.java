@@ -1,5 +1,5 @@
 package service;
-import model.GameData;
+import model.GameSummary;
 import java.util.Collection;
 
-public record ListGamesResult(Collection<GameData> games) {}
+public record ListGamesResult(Collection<GameSummary> games) {}
@@ -1,18 +1,26 @@
 package dataaccess;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.pgn.PgnGame;
 import dataaccess.exceptions.DataAccessException;
 import dataaccess.interfaces.GameDAO;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,16 +39,15 @@ public class GameDAOTest {
     void clearGamesTest() throws DataAccessException {
 
         ChessGame testGame = new ChessGame();
-        String gameJson = new Gson().toJson(testGame);
 
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "INSERT INTO games (game_id, white_username, black_username, game_name, game_status) VALUES (?, ?, ?, ?, ?)";
+            var statement = "INSERT INTO games (game_id, white_username, black_username, game_name, game_state) VALUES (?, ?, ?, ?, ?)";
             try (var ps = conn.prepareStatement(statement)) {
                 ps.setInt(1, 1234);
                 ps.setString(2, "testWhiteUsername");
                 ps.setString(3, "testBlackUsername");
                 ps.setString(4, "testGame1");
-                ps.setString(5, gameJson);
+                ps.setBytes(5, testGame.toBytes());
                 ps.executeUpdate();
             }
         } catch (SQLException e) {
@@ -84,7 +91,7 @@ public class GameDAOTest {
         }
 
         try (var conn = DatabaseManager.getConnection();
-             var stmt = conn.prepareStatement("SELECT game_id, game_name, game_status FROM games WHERE game_name = ?")) {
+             var stmt = conn.prepareStatement("SELECT game_id, game_name, game_state FROM games WHERE game_name = ?")) {
 
             stmt.setString(1, testGameName);
             var rs = stmt.executeQuery();
@@ -92,12 +99,11 @@ public class GameDAOTest {
             if (rs.next()) {
                 int dbGameId = rs.getInt("game_id");
                 String dbGameName = rs.getString("game_name");
-                String dbGameStatus = rs.getString("game_status");
+                byte[] dbGameState = rs.getBytes("game_state");
 
-                assertNotNull(dbGameStatus, "Game status json shouldn't be null");
+                assertNotNull(dbGameState, "Game state shouldn't be null");
 
-                Gson gson = new Gson();
-                ChessGame deserializedGame = gson.fromJson(dbGameStatus, ChessGame.class);
+                ChessGame deserializedGame = ChessGame.fromBytes(dbGameState);
                 assertNotNull(deserializedGame, "Deserialized game shouldn't be null");
 
                 System.out.println("Successfully inserted and verified game: " + dbGameName + " with ID: " + dbGameId);
@@ -126,16 +132,15 @@ public class GameDAOTest {
     void getGameTest() throws DataAccessException {
 
         ChessGame getTestGame = new ChessGame();
-        String gameJson = new Gson().toJson(getTestGame);
 
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "INSERT INTO games (game_id, white_username, black_username, game_name, game_status) VALUES (?, ?, ?, ?, ?)";
+            var statement = "INSERT INTO games (game_id, white_username, black_username, game_name, game_state) VALUES (?, ?, ?, ?, ?)";
             try (var ps = conn.prepareStatement(statement)) {
                 ps.setInt(1, 9991);
                 ps.setString(2, "testGetWhiteUsername");
                 ps.setString(3, "testGetBlackUsername");
                 ps.setString(4, "testGetGame1");
-                ps.setString(5, gameJson);
+                ps.setBytes(5, getTestGame.toBytes());
                 ps.executeUpdate();
             }
         } catch (SQLException e) {
@@ -178,12 +183,12 @@ public class GameDAOTest {
 
     @Test
     @DisplayName("List Games - Negative Case")
-    void listGamesCorruptedJson() throws DataAccessException {
+    void listGamesCorruptedState() throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "INSERT INTO games (game_name, game_status) VALUES (?, ?)";
+            var statement = "INSERT INTO games (game_name, game_state) VALUES (?, ?)";
             try (var ps = conn.prepareStatement(statement)) {
                 ps.setString(1, "Corrupted Game");
-                ps.setString(2, "[1, 2, 3, \"this is an array not an object\"]");
+                ps.setBytes(2, new byte[]{1, 2, 3});
                 ps.executeUpdate();
             }
         } catch (SQLException e) {
@@ -192,7 +197,63 @@ public class GameDAOTest {
 
         assertThrows(DataAccessException.class, () -> {
             gameDAO.listGames();
-        }, "Incorrect json format should throw data access exception");
+        }, "A malformed game state should throw data access exception");
+    }
+
+    @Test
+    @DisplayName("List Game Summaries - Success")
+    void listGameSummariesTest() throws DataAccessException {
+        GameData first = gameDAO.insertGame("Summary One");
+        GameData second = gameDAO.insertGame("Summary Two");
+        gameDAO.updateGame(second.gameID(),
+                new GameData(second.gameID(), "whiteTest", null, "Summary Two", second.game()));
+
+        Collection<GameSummary> summaries = gameDAO.listGameSummaries();
+
+        assertEquals(List.of(
+                new GameSummary(first.gameID(), null, null, "Summary One"),
+                new GameSummary(second.gameID(), "whiteTest", null, "Summary Two")
+        ), new ArrayList<>(summaries));
+    }
+
+    @Test
+    @DisplayName("List Game Summaries - Boards Are Not Read")
+    void listGameSummariesCorruptedState() throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "INSERT INTO games (game_name, game_state) VALUES (?, ?)";
+            try (var ps = conn.prepareStatement(statement)) {
+                ps.setString(1, "Corrupted Game");
+                ps.setBytes(2, new byte[]{1, 2, 3});
+                ps.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Couldn't insert test data", e);
+        }
+
+        Collection<GameSummary> summaries = gameDAO.listGameSummaries();
+        assertEquals(1, summaries.size(), "the lobby should not need a readable board");
+        assertEquals("Corrupted Game", summaries.iterator().next().gameName());
+    }
+
+    @Test
+    @DisplayName("Archive Games - Success")
+    void archiveGamesTest() throws DataAccessException, IOException, InvalidMoveException {
+        ChessGame played = new ChessGame();
+        played.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("White", "whiteTest");
+        tags.put("Black", "blackTest");
+        tags.put("Result", "1-0");
+
+        gameDAO.insertArchivedGames(List.of(new PgnGame(tags, played, "1-0")));
+
+        List<PgnGame> archived = new ArrayList<>();
+        gameDAO.forEachArchivedGame(archived::add);
+        assertEquals(1, archived.size());
+        assertEquals(tags, archived.get(0).tags());
+        assertEquals("1-0", archived.get(0).result());
+        assertEquals(played, archived.get(0).game());
+        assertTrue(gameDAO.listGames().isEmpty(), "archived games should not be listed with played ones");
     }
 
     @Test
@@ -227,5 +288,56 @@ public class GameDAOTest {
 
     }
 
+    @Test
+    @DisplayName("Append Move - Success")
+    void appendMoveTest() throws Exception {
+        GameData inserted = gameDAO.insertGame("Move log game");
+        int gameId = inserted.gameID();
+        ChessGame game = inserted.game();
+
+        // Shuffle the knights out and back until past the first snapshot
+        ChessMove[] moves = {
+                new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null),
+                new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null),
+                new ChessMove(new ChessPosition(3, 3), new ChessPosition(1, 2), null),
+                new ChessMove(new ChessPosition(6, 3), new ChessPosition(8, 2), null),
+        };
+        int plies = MySQLGameDAO.SNAPSHOT_INTERVAL + 3;
+        for (int ply = 0; ply < plies; ply++) {
+            game.makeMove(moves[ply % moves.length]);
+            gameDAO.appendMove(gameId, game);
+        }
+
+        GameData loaded = gameDAO.getGame(gameId);
+        assertEquals(game, loaded.game(), "the snapshot and later moves should rebuild the game");
+        assertEquals(plies, loaded.game().getMoveCount());
+        assertEquals(game.isThreefoldRepetition(), loaded.game().isThreefoldRepetition());
+        assertEquals("Move log game", loaded.gameName());
+
+        try (var conn = DatabaseManager.getConnection();
+             var stmt = conn.prepareStatement("SELECT snapshot_ply FROM games WHERE game_id = ?")) {
+            stmt.setInt(1, gameId);
+            var rs = stmt.executeQuery();
+            assertTrue(rs.next());
+            assertEquals(MySQLGameDAO.SNAPSHOT_INTERVAL, rs.getInt(1));
+        } catch (SQLException e) {
+            throw new DataAccessException("Couldn't read snapshot", e);
+        }
+    }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Append Move - Negative Case")
+    void appendMoveTestNegative() throws Exception {
+        GameData inserted = gameDAO.insertGame("Move log game");
+        assertThrows(DataAccessException.class, () -> gameDAO.appendMove(inserted.gameID(), new ChessGame()),
+                "a game with no moves has nothing to record");
+
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        gameDAO.appendMove(inserted.gameID(), game);
+        assertThrows(DataAccessException.class, () -> gameDAO.appendMove(inserted.gameID(), game),
+                "the same ply cannot be recorded twice");
+        assertThrows(DataAccessException.class, () -> gameDAO.appendMove(987654, game),
+                "moves can only be recorded for stored games");
+    }
+}
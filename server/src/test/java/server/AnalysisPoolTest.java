@@ -0,0 +1,97 @@
+package server;
+
+import chess.ChessGame;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AnalysisPoolTest {
+
+    private AnalysisPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new AnalysisPool(1, 1, 1, SearchLimits.millis(2_000).withNodes(500_000));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Searches Are Held To The Pool Budget")
+    public void budgetIsCapped() throws Exception {
+        SearchResult result = pool.submit(new ChessGame(), SearchLimits.nodes(Long.MAX_VALUE - 1))
+                .get(10, TimeUnit.SECONDS);
+
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.nodes() <= 500_000, "the pool's node budget should apply");
+        Assertions.assertEquals(1, pool.stats().completed());
+    }
+
+    @Test
+    @DisplayName("Requests Over Capacity Are Rejected")
+    public void overCapacity() throws Exception {
+        CompletableFuture<SearchResult> running = pool.submit(new ChessGame(), SearchLimits.millis(2_000));
+        CompletableFuture<SearchResult> queued = pool.submit(new ChessGame(), SearchLimits.millis(2_000));
+
+        Assertions.assertThrows(RejectedExecutionException.class,
+                () -> pool.submit(new ChessGame(), SearchLimits.depth(1)));
+        Assertions.assertEquals(1, pool.stats().rejected());
+
+        queued.cancel(false);
+        running.cancel(false);
+        Assertions.assertEquals(2, pool.stats().cancelled());
+    }
+
+    @Test
+    @DisplayName("Cancelling Frees The Thread")
+    public void cancelFreesThread() throws Exception {
+        CompletableFuture<SearchResult> running = pool.submit(new ChessGame(), SearchLimits.millis(2_000));
+        running.cancel(false);
+
+        SearchResult next = pool.submit(new ChessGame(), SearchLimits.depth(3)).get(1, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(3, next.depth(), "a cancelled search should not hold the only thread");
+    }
+
+    @Test
+    @DisplayName("Cancelling A Queued Request Frees Its Place")
+    public void cancelFreesQueue() throws Exception {
+        CompletableFuture<SearchResult> running = pool.submit(new ChessGame(), SearchLimits.millis(2_000));
+        CompletableFuture<SearchResult> queued = pool.submit(new ChessGame(), SearchLimits.millis(2_000));
+        queued.cancel(false);
+
+        Assertions.assertEquals(0, pool.stats().queued(), "a cancelled request should leave the queue");
+        CompletableFuture<SearchResult> next = pool.submit(new ChessGame(), SearchLimits.depth(1));
+        running.cancel(false);
+
+        Assertions.assertEquals(1, next.get(1, TimeUnit.SECONDS).depth());
+        Assertions.assertEquals(0, pool.stats().rejected());
+    }
+
+    @Test
+    @DisplayName("Searches Use Up To The Pool's Threads Per Search")
+    public void threadsPerSearch() throws Exception {
+        AnalysisPool smp = new AnalysisPool(1, 2, 1, 1, SearchLimits.millis(2_000).withNodes(200_000),
+                null, null, null);
+        try {
+            SearchResult result = smp.submit(new ChessGame(), SearchLimits.depth(4), 8).get(10, TimeUnit.SECONDS);
+            SearchResult budgeted = smp.submit(new ChessGame(), SearchLimits.nodes(Long.MAX_VALUE - 1), 2)
+                    .get(10, TimeUnit.SECONDS);
+
+            Assertions.assertNotNull(result.bestMove());
+            Assertions.assertTrue(result.depth() >= 4);
+            Assertions.assertTrue(budgeted.nodes() <= 200_000, "the threads together should keep to the node budget");
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> smp.submit(new ChessGame(), SearchLimits.depth(1), 0));
+        } finally {
+            smp.shutdown();
+        }
+    }
+}
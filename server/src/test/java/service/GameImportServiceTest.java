@@ -0,0 +1,107 @@
+package service;
+
+import chess.ChessGame;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnWriter;
+import dataaccess.MemoryGameDAO;
+import dataaccess.interfaces.GameDAO;
+import model.GameData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameImportServiceTest {
+
+    private static final String MATE = """
+            [Event "Club Night"]
+            [White "Alice"]
+            [Black "Bob"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Bc4 Nc6 3. Qh5 Nf6 4. Qxf7# 1-0
+
+            """;
+
+    private static final String CASTLES = """
+            [White "Carol"]
+            [Black "?"]
+
+            1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 4. O-O *
+
+            """;
+
+    private GameDAO gameDAO;
+    private GameImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        gameDAO = new MemoryGameDAO();
+        importService = new GameImportService(gameDAO);
+    }
+
+    @Test
+    @DisplayName("Import Stream")
+    void importStream() throws Exception {
+        var result = importService.importGames(
+                new ByteArrayInputStream((MATE + CASTLES).getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(new GameImportService.ImportResult(1, 1), result);
+        List<PgnGame> archived = archivedGames();
+        assertEquals(1, archived.size());
+        PgnGame game = archived.get(0);
+        assertEquals("Club Night", game.tag("Event"));
+        assertEquals("Alice", game.tag("White"));
+        assertEquals("1-0", game.result(), "the result should be kept");
+        assertTrue(game.game().isInCheckmate(ChessGame.TeamColor.BLACK), "moves should be replayed");
+    }
+
+    @Test
+    @DisplayName("Imported Games Are Kept Apart")
+    void importedGamesKeptApart() throws Exception {
+        importService.importGames(new ByteArrayInputStream(MATE.getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(gameDAO.listGames().isEmpty(), "imported games should not be in the lobby");
+        List<GameData> alicesGames = new ArrayList<>();
+        gameDAO.forEachGame("Alice", alicesGames::add);
+        assertTrue(alicesGames.isEmpty(), "a user named after a player should not be seated in the game");
+
+        StringWriter pgn = new StringWriter();
+        gameDAO.forEachArchivedGame(new PgnWriter(pgn)::write);
+        assertTrue(pgn.toString().contains("[Result \"1-0\"]"));
+        assertTrue(pgn.toString().contains("4. Qxf7# 1-0"), "an archived game should be exported with its result");
+    }
+
+    @Test
+    @DisplayName("Import Files In Batches")
+    void importFiles(@TempDir Path dir) throws Exception {
+        int games = GameImportService.BATCH_SIZE + 1;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Path file = dir.resolve("games" + i + ".pgn");
+            Files.writeString(file, MATE.repeat(games) + CASTLES);
+            files.add(file);
+        }
+
+        var result = importService.importFiles(files, 2);
+
+        assertEquals(new GameImportService.ImportResult(3L * games, 3), result);
+        assertEquals(3 * games, archivedGames().size());
+    }
+
+    private List<PgnGame> archivedGames() throws Exception {
+        List<PgnGame> archived = new ArrayList<>();
+        gameDAO.forEachArchivedGame(archived::add);
+        return archived;
+    }
+}
@@ -6,9 +6,14 @@ import dataaccess.exceptions.BadRequestException;
 import dataaccess.interfaces.AuthDAO;
 import dataaccess.interfaces.GameDAO;
 import dataaccess.interfaces.UserDAO;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.pgn.PgnWriter;
 import model.*;
 import org.junit.jupiter.api.*;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -182,4 +187,48 @@ public class GameServiceTest {
             gameService.joinGame(secondRequest);
         });
     }
+
+    @Test
+    @Order(7)
+    @DisplayName("Export Games - Success")
+    void exportGamesSuccess() throws Exception {
+        authDAO.insertAuth(new AuthData("auth1", "player1"));
+        GameData played = gameDAO.insertGame("Played");
+        gameDAO.insertGame("Someone Else's");
+        ChessGame game = played.game();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        gameDAO.updateGame(played.gameID(), new GameData(played.gameID(), "player1", null, "Played", game));
+
+        StringWriter all = new StringWriter();
+        gameService.writeGames(gameService.exportGames(new ExportGamesRequest("auth1", 0, false)),
+                new PgnWriter(all));
+
+        assertTrue(all.toString().contains("[Event \"Played\"]"), "the user's game should be exported");
+        assertTrue(all.toString().contains("[White \"player1\"]"));
+        assertTrue(all.toString().contains("1. e4 e5 *"), "the moves should be written in SAN");
+        assertFalse(all.toString().contains("Someone Else's"), "only the user's games should be exported");
+
+        StringWriter one = new StringWriter();
+        gameService.writeGames(gameService.exportGames(new ExportGamesRequest("auth1", played.gameID(), false)),
+                new PgnWriter(one));
+        assertEquals(all.toString(), one.toString());
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Export Games - Bad Request & Unauthorized")
+    void exportGamesFail() throws Exception {
+        authDAO.insertAuth(new AuthData("auth1", "player1"));
+
+        assertThrows(UnauthorizedException.class, () ->
+                gameService.exportGames(new ExportGamesRequest("bad", 0, false)));
+        assertThrows(BadRequestException.class, () ->
+                gameService.exportGames(new ExportGamesRequest("auth1", 999, false)));
+        assertThrows(BadRequestException.class, () ->
+                gameService.exportGames(new ExportGamesRequest("auth1", -1, false)));
+        assertThrows(BadRequestException.class, () ->
+                gameService.exportGames(new ExportGamesRequest("auth1", 1, true)),
+                "a game ID and the archive cannot both be asked for");
+    }
 }
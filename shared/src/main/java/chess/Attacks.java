@@ -0,0 +1,225 @@
+package chess;
+
+/**
+ * Precomputed attack tables for every piece type.
+ * <p>
+ * Knight, king and pawn attacks are plain per-square lookups. Sliding pieces
+ * use magic bitboards: for every square the relevant blocker squares of a rook
+ * or bishop are multiplied by a magic number so the high bits index straight
+ * into a table of attack sets. The magic numbers below are collision-free for
+ * these masks; the tables themselves are filled in once when the class loads,
+ * after which a lookup is a mask, a multiply and a shift.
+ */
+final class Attacks {
+
+    private static final int[][] ROOK_DIRECTIONS = {{0, 1}, {1, 0}, {-1, 0}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] ROOK_MAGIC_NUMBERS = {
+            0x0080021620804001L, 0x0040001000200041L, 0x0200102200088040L, 0x4080040800821000L,
+            0x2200020004200810L, 0x4B00020C000D0008L, 0x01000C4183000600L, 0x2080010000402C80L,
+            0x8002800826864000L, 0x0410802000884000L, 0x0C01004010200100L, 0xC802001200084023L,
+            0x0202000A00102004L, 0x4010800200040080L, 0x8804000208048110L, 0x0C40800080004100L,
+            0xA2018880024004A0L, 0x0100908020004000L, 0x1010410010200101L, 0x2010008008008010L,
+            0x0A08010004110008L, 0x0802080104209040L, 0x0080040090010802L, 0x0280020000841069L,
+            0x080C400080248000L, 0x2048850100224008L, 0x00200800C0300040L, 0x11400D0100201000L,
+            0x0208040080800800L, 0x0060040080800200L, 0x0420010080800200L, 0x9008010200004084L,
+            0x0080002000400040L, 0x0420100040400020L, 0x0190130045002000L, 0x4010004402400800L,
+            0x0104080101001004L, 0x0000020080800400L, 0x0600420804008110L, 0x692C004482001524L,
+            0x0020803040008001L, 0x0020084030004000L, 0x0480200104450010L, 0x0190100025010008L,
+            0x0401008801110004L, 0x0809001400090046L, 0x2004889001040002L, 0x000803A24C020003L,
+            0x9000400080002080L, 0x0200401000200040L, 0x8299A00890008480L, 0x0224080010008480L,
+            0x0028002900102500L, 0x3101844020100801L, 0x1001000E00040300L, 0x0080110880440200L,
+            0x8100944080052101L, 0x0C00820040210012L, 0x0A20122000C10901L, 0x0620210004100109L,
+            0x0002002008041002L, 0x0002000104100802L, 0x8420500208011084L, 0x0001000020420081L
+    };
+
+    private static final long[] BISHOP_MAGIC_NUMBERS = {
+            0x8049010808004080L, 0x20A09C0410404004L, 0x0010011200200000L, 0x00020A020A002000L,
+            0x0841104048189088L, 0x0051104210402001L, 0x02010090846004C1L, 0x2100220100A01080L,
+            0x0020100202440400L, 0x0C00202204010034L, 0x0000080808508200L, 0x0020022082028011L,
+            0xC000040420008010L, 0x1204382A30100020L, 0x0002850801900800L, 0x2880042212104440L,
+            0xA80810C090019200L, 0x0004C0208C2C0040L, 0x0008823014004088L, 0x0208004422022000L,
+            0x4242889400A00618L, 0x400A000109012002L, 0x0001280084100222L, 0x0440400890441040L,
+            0x0020083110108108L, 0x0408840022440800L, 0x8920900108002020L, 0x8044010050100408L,
+            0x0991004104004051L, 0x0008020006411880L, 0x0501220204008402L, 0x8200920004210400L,
+            0x82A1044001111080L, 0x0101040384101000L, 0x0022011000010048L, 0x2011020082080080L,
+            0x0000501040040040L, 0x0210010201404040L, 0x0010040041A08208L, 0x8088024148210300L,
+            0x0000884808204082L, 0xC824011403041001L, 0x0002008024002080L, 0xF4D0011144019800L,
+            0x0200210122000400L, 0x8102601400200501L, 0x0004080801280442L, 0x0C0242004112D200L,
+            0x1014240404044000L, 0x0103090082200020L, 0x0C0001041104004CL, 0x4080805084041020L,
+            0x080A102044240002L, 0x0000401102448484L, 0x100BA00114010000L, 0xA410022204242600L,
+            0x182A010882100200L, 0x1020004202100200L, 0x90011C0034020800L, 0x20E1000000208800L,
+            0x2000004090A02204L, 0x0001000920A80880L, 0x1200206089A10100L, 0x0110541004420023L
+    };
+
+    private static final int[][] KNIGHT_STEPS = {{2, 1}, {2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}, {-2, 1}, {-2, -1}};
+    private static final int[][] KING_STEPS = {{1, 0}, {1, 1}, {1, -1}, {0, 1}, {0, -1}, {-1, 0}, {-1, -1}, {-1, 1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final Magic[] ROOK_MAGICS = new Magic[64];
+    private static final Magic[] BISHOP_MAGICS = new Magic[64];
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_STEPS);
+            KING_ATTACKS[square] = stepAttacks(square, KING_STEPS);
+            PAWN_ATTACKS[ChessBoard.WHITE][square] = stepAttacks(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[ChessBoard.BLACK][square] = stepAttacks(square, new int[][]{{-1, -1}, {-1, 1}});
+            ROOK_MAGICS[square] = buildMagic(square, ROOK_DIRECTIONS, ROOK_MAGIC_NUMBERS[square]);
+            BISHOP_MAGICS[square] = buildMagic(square, BISHOP_DIRECTIONS, BISHOP_MAGIC_NUMBERS[square]);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long bits = (1L << a) | (1L << b);
+                if ((rook(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = rook(a, 1L << b) & rook(b, 1L << a);
+                    LINE[a][b] = (rook(a, 0) & rook(b, 0)) | bits;
+                } else if ((bishop(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = bishop(a, 1L << b) & bishop(b, 1L << a);
+                    LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | bits;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * @return squares a knight on {@code square} attacks
+     */
+    static long knight(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @return squares a king on {@code square} attacks
+     */
+    static long king(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return squares a pawn of the given color on {@code square} attacks diagonally
+     */
+    static long pawn(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    /**
+     * @return squares a rook on {@code square} attacks given the occupied squares
+     */
+    static long rook(int square, long occupied) {
+        return ROOK_MAGICS[square].attacks(occupied);
+    }
+
+    /**
+     * @return squares a bishop on {@code square} attacks given the occupied squares
+     */
+    static long bishop(int square, long occupied) {
+        return BISHOP_MAGICS[square].attacks(occupied);
+    }
+
+    /**
+     * @return squares a queen on {@code square} attacks given the occupied squares
+     */
+    static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * @return squares strictly between two squares on a shared row, column or
+     * diagonal, or an empty set if they are not aligned
+     */
+    static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return every square on the full row, column or diagonal through both
+     * squares, or an empty set if they are not aligned
+     */
+    static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    private record Magic(long mask, long magic, int shift, long[] table) {
+        long attacks(long occupied) {
+            return table[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+    }
+
+    private static Magic buildMagic(int square, int[][] directions, long magic) {
+        long mask = relevantBlockers(square, directions);
+        int shift = 64 - Long.bitCount(mask);
+        long[] table = new long[1 << Long.bitCount(mask)];
+
+        long subset = 0;
+        do {
+            table[(int) ((subset * magic) >>> shift)] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+
+        return new Magic(mask, magic, shift, table);
+    }
+
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int row = square / 8 + step[0];
+            int col = square % 8 + step[1];
+            if (onBoard(row, col)) {
+                attacks |= 1L << (row * 8 + col);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Squares whose occupancy can change the attack set; the last square of
+     * each ray never blocks anything beyond it, so it is left out
+     */
+    private static long relevantBlockers(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int col = square % 8 + direction[1];
+            while (onBoard(row + direction[0], col + direction[1])) {
+                mask |= 1L << (row * 8 + col);
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int col = square % 8 + direction[1];
+            while (onBoard(row, col)) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+}
@@ -1,19 +1,87 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Internally the board is stored as twelve bitboards (one per color and piece
+ * type) plus per-color occupancy masks and a square-indexed mailbox, so move
+ * generation and attack detection can work on bit masks instead of walking
+ * {@link ChessPosition} objects. Squares are numbered 0-63 starting from
+ * a1 (row 1, column 1) and increasing along the row. A Zobrist key of the
+ * piece placement, and its score under a {@link PieceSquareTable}, are
+ * updated alongside the bitboards on every change.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoard.Serializer.class)
 public class ChessBoard {
 
-    ChessPiece[][] squares =  new ChessPiece[8][8];
+    static final int WHITE = 0;
+    static final int BLACK = 1;
+    static final int EMPTY = -1;
+    static final int PIECE_TYPES = 6;
+
+    static final int KING = ChessPiece.PieceType.KING.ordinal();
+    static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+    static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+    static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+    static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+    static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    /**
+     * Bytes in the form written by {@link #pack}
+     */
+    static final int PACKED_BYTES = 32;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    /**
+     * FEN letters indexed by piece code: white's in upper case, black's in lower
+     */
+    private static final String FEN_LETTERS = "KQBNRPkqbnrp";
+
+    private static final ChessPiece[] PIECES = new ChessPiece[2 * PIECE_TYPES];
+
+    static {
+        for (int code = 0; code < PIECES.length; code++) {
+            PIECES[code] = ChessPiece.of(teamOf(code), typeOf(code));
+        }
+    }
+
+    private final long[] pieces = new long[2 * PIECE_TYPES];
+    private final long[] occupancy = new long[2];
+    private final byte[] mailbox = new byte[64];
+    private long key;
+    private PieceSquareTable weights = PieceSquareTable.DEFAULT;
+    private int score;
+
     public ChessBoard() {
-        
+        Arrays.fill(mailbox, (byte) EMPTY);
+    }
+
+    /**
+     * Creates an independent copy of a board. This is three array copies, so
+     * it is cheap enough to give each thread its own board.
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.occupancy, 0, occupancy, 0, occupancy.length);
+        System.arraycopy(other.mailbox, 0, mailbox, 0, mailbox.length);
+        key = other.key;
+        weights = other.weights;
+        score = other.score;
     }
 
     /**
@@ -23,7 +91,11 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        int square = square(position);
+        removePiece(square);
+        if (piece != null) {
+            putPiece(square, pieceCode(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -34,7 +106,192 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow()-1][position.getColumn()-1];
+        int code = mailbox[square(position)];
+        return code == EMPTY ? null : PIECES[code];
+    }
+
+    /**
+     * Gets a chess piece by square index, for callers working with encoded
+     * {@link Move}s
+     *
+     * @param square the square, 0-63 counting from a1 along each row
+     * @return Either the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPieceAt(int square) {
+        int code = mailbox[square];
+        return code == EMPTY ? null : PIECES[code];
+    }
+
+    /**
+     * Gets the squares holding one team's pieces of one type
+     *
+     * @param team the pieces' team
+     * @param type the pieces' type
+     * @return bitboard with bit n set when square n, as numbered by
+     * {@link #getPieceAt}, holds such a piece
+     */
+    public long getPieces(ChessGame.TeamColor team, ChessPiece.PieceType type) {
+        return pieces[pieceCode(team, type)];
+    }
+
+    /**
+     * @return the number of pieces on the board, both teams' together
+     */
+    public int getPieceCount() {
+        return Long.bitCount(occupied());
+    }
+
+    /**
+     * Reads a board from the piece placement field of a FEN string, such as
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR}
+     *
+     * @param fen a FEN string, or just its first field
+     * @return the board
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    public static ChessBoard fromFen(String fen) {
+        int end = fen.indexOf(' ');
+        return readFen(fen, end < 0 ? fen.length() : end);
+    }
+
+    /**
+     * Writes the board as the piece placement field of a FEN string
+     *
+     * @return the placement, rows from 8 down to 1
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(72);
+        appendFen(fen);
+        return fen.toString();
+    }
+
+    /**
+     * Reads the placement in the first {@code end} characters of a FEN string
+     */
+    static ChessBoard readFen(String fen, int end) {
+        ChessBoard board = new ChessBoard();
+        int row = 7;
+        int col = 0;
+        for (int i = 0; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw new IllegalArgumentException("Row " + (row + 1) + " of the FEN does not have 8 squares");
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 8) {
+                    throw new IllegalArgumentException("Row " + (row + 1) + " of the FEN has more than 8 squares");
+                }
+            } else {
+                int code = fenCode(c);
+                if (code == EMPTY || col == 8) {
+                    throw new IllegalArgumentException("Unexpected '" + c + "' in the FEN placement");
+                }
+                board.putPiece(row * 8 + col++, code);
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw new IllegalArgumentException("The FEN placement does not cover all 64 squares");
+        }
+        return board;
+    }
+
+    void appendFen(StringBuilder fen) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int code = mailbox[row * 8 + col];
+                if (code == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(FEN_LETTERS.charAt(code));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+    }
+
+    /**
+     * Writes the board into {@link #PACKED_BYTES} bytes: a four-bit code per
+     * square from a1, two squares to a byte with the lower square in the low
+     * bits, where 0 is empty and otherwise the piece code plus one
+     */
+    void pack(byte[] out, int offset) {
+        for (int square = 0; square < 64; square += 2) {
+            out[offset + square / 2] = (byte) ((mailbox[square] + 1) | (mailbox[square + 1] + 1) << 4);
+        }
+    }
+
+    /**
+     * Reads a board written by {@link #pack}
+     *
+     * @throws IllegalArgumentException if a square holds no valid code
+     */
+    static ChessBoard unpack(byte[] in, int offset) {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int code = ((in[offset + square / 2] >>> (4 * (square & 1))) & 0xF) - 1;
+            if (code >= PIECES.length) {
+                throw new IllegalArgumentException("Not a piece code: " + (code + 1));
+            }
+            if (code != EMPTY) {
+                board.putPiece(square, code);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @return the piece code for a FEN piece letter, or {@link #EMPTY}
+     */
+    private static int fenCode(char c) {
+        int code = FEN_LETTERS.indexOf(c);
+        return code < 0 ? EMPTY : code;
+    }
+
+    /**
+     * Gets the position's score under the board's {@link PieceSquareTable},
+     * kept up to date as pieces move rather than summed when asked for
+     *
+     * @return the sum of the values of every piece on its square, white's
+     * positive and black's negative
+     */
+    public int getPieceSquareScore() {
+        return score;
+    }
+
+    /**
+     * @return the weights the board is scored with
+     */
+    public PieceSquareTable getPieceSquareTable() {
+        return weights;
+    }
+
+    /**
+     * Scores the board with different weights from now on
+     *
+     * @param table the weights to use
+     */
+    public void setPieceSquareTable(PieceSquareTable table) {
+        weights = table;
+        score = 0;
+        for (int square = 0; square < 64; square++) {
+            if (mailbox[square] != EMPTY) {
+                score += table.value(mailbox[square], square);
+            }
+        }
     }
 
     /**
@@ -42,35 +299,184 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        squares = new ChessPiece[8][8];
+        clear();
+
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+        };
+        for (int col = 0; col < 8; col++) {
+            putPiece(col, pieceCode(WHITE, backRank[col].ordinal()));
+            putPiece(8 + col, pieceCode(WHITE, PAWN));
+            putPiece(48 + col, pieceCode(BLACK, PAWN));
+            putPiece(56 + col, pieceCode(BLACK, backRank[col].ordinal()));
+        }
+    }
+
+    /**
+     * Removes every piece from the board
+     */
+    void clear() {
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(occupancy, 0L);
+        Arrays.fill(mailbox, (byte) EMPTY);
+        key = 0;
+        score = 0;
+    }
+
+    /**
+     * Places a piece on an empty square
+     *
+     * @param square 0-63 square index
+     * @param code   piece code as returned by {@link #pieceCode}
+     */
+    void putPiece(int square, int code) {
+        long bit = 1L << square;
+        pieces[code] |= bit;
+        occupancy[code / PIECE_TYPES] |= bit;
+        mailbox[square] = (byte) code;
+        key ^= Zobrist.piece(code, square);
+        score += weights.value(code, square);
+    }
+
+    /**
+     * Clears a square, returning the code of the piece that was on it
+     *
+     * @param square 0-63 square index
+     * @return the removed piece code, or {@link #EMPTY}
+     */
+    int removePiece(int square) {
+        int code = mailbox[square];
+        if (code != EMPTY) {
+            long bit = ~(1L << square);
+            pieces[code] &= bit;
+            occupancy[code / PIECE_TYPES] &= bit;
+            mailbox[square] = (byte) EMPTY;
+            key ^= Zobrist.piece(code, square);
+            score -= weights.value(code, square);
+        }
+        return code;
+    }
 
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+    /**
+     * Moves a piece without any legality checks, promoting it if the move
+     * carries a promotion piece
+     *
+     * @param move an encoded move, see {@link Move}
+     * @return the code of the captured piece, or {@link #EMPTY}, to hand back
+     * to {@link #unmakeMove}
+     */
+    int makeMove(int move) {
+        int to = Move.to(move);
+        int captured = removePiece(to);
+        int piece = removePiece(Move.from(move));
+        int promotion = Move.promotionType(move);
+        putPiece(to, promotion == EMPTY ? piece : pieceCode(piece / PIECE_TYPES, promotion));
+        return captured;
+    }
 
-        for (int col = 1; col <= 8; col++) { //white pawns
-            addPiece(new ChessPosition(2, col), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+    /**
+     * Reverts a move applied with {@link #makeMove}
+     *
+     * @param move     the encoded move that was made
+     * @param captured the piece code {@link #makeMove} returned
+     */
+    void unmakeMove(int move, int captured) {
+        int to = Move.to(move);
+        int piece = removePiece(to);
+        if (Move.promotionType(move) != EMPTY) {
+            piece = pieceCode(piece / PIECE_TYPES, PAWN);
         }
+        putPiece(Move.from(move), piece);
+        if (captured != EMPTY) {
+            putPiece(to, captured);
+        }
+    }
+
+    /**
+     * @return the piece code on a square, or {@link #EMPTY}
+     */
+    int pieceAt(int square) {
+        return mailbox[square];
+    }
+
+    /**
+     * @return bitboard of one color's pieces of a single type
+     */
+    long pieces(int color, int type) {
+        return pieces[pieceCode(color, type)];
+    }
 
-        for (int col = 1; col <= 8; col++) { //black pawns
-            addPiece(new ChessPosition(7, col), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+    /**
+     * @return the Zobrist key of the piece placement, without side to move
+     */
+    long zobristKey() {
+        return key;
+    }
+
+    /**
+     * Locates a king from its bitboard, which every mutation already keeps up
+     * to date, so finding it never scans the board
+     *
+     * @return the king's square, or 64 if the color has no king
+     */
+    int kingSquare(int color) {
+        return Long.numberOfTrailingZeros(pieces[pieceCode(color, KING)]);
+    }
+
+    /**
+     * @return bitboard of every square occupied by the given color
+     */
+    long occupancy(int color) {
+        return occupancy[color];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    long occupied() {
+        return occupancy[WHITE] | occupancy[BLACK];
+    }
+
+    static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    static int square(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            throw new IndexOutOfBoundsException("Position off the board: [" + row + "," + col + "]");
         }
+        return (row - 1) * 8 + (col - 1);
+    }
 
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+    static ChessPosition position(int square) {
+        return ChessPosition.of(square / 8 + 1, square % 8 + 1);
     }
 
+    static int pieceCode(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceCode(colorIndex(color), type.ordinal());
+    }
+
+    static int pieceCode(int color, int type) {
+        return color * PIECE_TYPES + type;
+    }
+
+    static int colorIndex(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE : BLACK;
+    }
+
+    static ChessGame.TeamColor teamOf(int code) {
+        return code < PIECE_TYPES ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    static ChessPiece.PieceType typeOf(int code) {
+        return TYPES[code % PIECE_TYPES];
+    }
+
+    static ChessPiece piece(int code) {
+        return PIECES[code];
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -78,11 +484,94 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return Arrays.equals(pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(key);
+    }
+
+    /**
+     * Keeps the JSON form of a board identical to the original
+     * {@code squares} grid so stored games and clients stay compatible
+     */
+    static class Serializer extends TypeAdapter<ChessBoard> {
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            if (board == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("squares");
+            out.beginArray();
+            for (int row = 0; row < 8; row++) {
+                out.beginArray();
+                for (int col = 0; col < 8; col++) {
+                    int code = board.mailbox[row * 8 + col];
+                    if (code == EMPTY) {
+                        out.nullValue();
+                    } else {
+                        out.beginObject();
+                        out.name("pieceColor").value(teamOf(code).name());
+                        out.name("type").value(typeOf(code).name());
+                        out.endObject();
+                    }
+                }
+                out.endArray();
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessBoard board = new ChessBoard();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("squares")) {
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                for (int row = 0; in.hasNext(); row++) {
+                    in.beginArray();
+                    for (int col = 0; in.hasNext(); col++) {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            board.putPiece(row * 8 + col, readPiece(in));
+                        }
+                    }
+                    in.endArray();
+                }
+                in.endArray();
+            }
+            in.endObject();
+            return board;
+        }
+
+        private static int readPiece(JsonReader in) throws IOException {
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "type" -> type = ChessPiece.PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new IOException("Chess piece is missing its color or type");
+            }
+            return pieceCode(color, type);
+        }
     }
 }
@@ -1,19 +1,34 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board
  * <p>
+ * Every move made is recorded with the piece it captured and the position
+ * key before it, so moves can be taken back in order with {@link #undoMove}
+ * without copying the board. The record is kept since the board was last set.
+ * It is left out of the game's JSON, which carries only the position;
+ * {@link #toBytes} keeps it.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessGame {
+    private static final int MOVE_MASK = 0x7FFF;
+    private static final int CAPTURE_SHIFT = 15;
+    private static final byte BYTES_FORMAT = 1;
+    private static final int BYTES_HEADER = 2 + ChessBoard.PACKED_BYTES;
+
     private TeamColor turn;
     private ChessBoard board;
+    private transient long[] keyHistory = new long[32];
+    private transient int[] moveHistory = new int[32];
+    private transient int keyHistorySize;
+    private final transient int[] moveBuffer = new int[MoveGenerator.MAX_MOVES];
 
 
     public ChessGame() {
@@ -22,6 +37,142 @@ public class ChessGame {
         board.resetBoard();
     }
 
+    private ChessGame(ChessBoard board, TeamColor turn) {
+        this.board = board;
+        this.turn = turn;
+    }
+
+    /**
+     * Creates an independent copy of a game, including its board and the
+     * moves and positions used for taking back moves and repetition detection
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        turn = other.turn;
+        board = new ChessBoard(other.board);
+        keyHistory = Arrays.copyOf(other.keyHistory, other.keyHistory.length);
+        moveHistory = Arrays.copyOf(other.moveHistory, other.moveHistory.length);
+        keyHistorySize = other.keyHistorySize;
+    }
+
+    /**
+     * Reads a game from a FEN string, such as
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1}. Only
+     * the piece placement and side to move are used: this game has no
+     * castling or en passant and does not count moves, so the later fields
+     * may be given or left out and are not read.
+     *
+     * @param fen the FEN string
+     * @return the game, with no moves to take back
+     * @throws IllegalArgumentException if the placement or side to move is
+     *                                  malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        int end = fen.indexOf(' ');
+        if (end < 0 || end + 1 >= fen.length()) {
+            throw new IllegalArgumentException("The FEN does not say whose turn it is");
+        }
+        ChessBoard board = ChessBoard.readFen(fen, end);
+        char side = fen.charAt(end + 1);
+        if ((side != 'w' && side != 'b') || (end + 2 < fen.length() && fen.charAt(end + 2) != ' ')) {
+            throw new IllegalArgumentException("The FEN side to move must be w or b");
+        }
+        return new ChessGame(board, side == 'w' ? TeamColor.WHITE : TeamColor.BLACK);
+    }
+
+    /**
+     * Writes the position as a FEN string. Castling and en passant are
+     * written as unavailable and the move counters as a first move, since
+     * this game has none of them.
+     *
+     * @return the FEN string
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(80);
+        board.appendFen(fen);
+        fen.append(turn == TeamColor.WHITE ? " w" : " b").append(" - - 0 1");
+        return fen.toString();
+    }
+
+    /**
+     * Writes the game in a compact binary form for storage: a format byte,
+     * the position the move record starts from as 32 bytes of four-bit piece
+     * codes, a byte for whose turn it was there, then two bytes per move. A
+     * game of forty moves takes under 200 bytes.
+     *
+     * @return the encoded game
+     */
+    public byte[] toBytes() {
+        // Take the moves back on a copy of the board to find the start
+        ChessBoard start = new ChessBoard(board);
+        for (int i = keyHistorySize - 1; i >= 0; i--) {
+            int record = moveHistory[i];
+            start.unmakeMove(record & MOVE_MASK, (record >>> CAPTURE_SHIFT) - 1);
+        }
+        TeamColor startTurn = keyHistorySize == 0
+                ? turn : ChessBoard.teamOf(start.pieceAt(Move.from(moveHistory[0])));
+
+        byte[] bytes = new byte[BYTES_HEADER + 2 * keyHistorySize];
+        bytes[0] = BYTES_FORMAT;
+        start.pack(bytes, 1);
+        bytes[1 + ChessBoard.PACKED_BYTES] = (byte) startTurn.ordinal();
+        for (int i = 0, offset = BYTES_HEADER; i < keyHistorySize; i++, offset += 2) {
+            int move = moveHistory[i] & MOVE_MASK;
+            bytes[offset] = (byte) (move >>> 8);
+            bytes[offset + 1] = (byte) move;
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a game written by {@link #toBytes}, replaying its moves so they
+     * can be taken back and repetitions found as before it was written
+     *
+     * @param bytes the encoded game
+     * @return the game
+     * @throws IllegalArgumentException if the bytes are not an encoded game
+     */
+    public static ChessGame fromBytes(byte[] bytes) {
+        if (bytes.length < BYTES_HEADER || (bytes.length - BYTES_HEADER) % 2 != 0 || bytes[0] != BYTES_FORMAT) {
+            throw new IllegalArgumentException("Not an encoded game");
+        }
+        int startTurn = bytes[1 + ChessBoard.PACKED_BYTES];
+        if (startTurn != 0 && startTurn != 1) {
+            throw new IllegalArgumentException("Not a team: " + startTurn);
+        }
+        ChessGame game = new ChessGame(ChessBoard.unpack(bytes, 1), TeamColor.values()[startTurn]);
+        for (int offset = BYTES_HEADER; offset < bytes.length; offset += 2) {
+            int move = (bytes[offset] & 0xFF) << 8 | (bytes[offset + 1] & 0xFF);
+            int piece = game.board.pieceAt(Move.from(move));
+            int target = game.board.pieceAt(Move.to(move));
+            if (piece == ChessBoard.EMPTY || ChessBoard.teamOf(piece) != game.turn
+                    || (target != ChessBoard.EMPTY && ChessBoard.teamOf(target) == game.turn)
+                    || Move.promotionType(move) >= ChessBoard.PIECE_TYPES) {
+                int number = (offset - BYTES_HEADER) / 2 + 1;
+                throw new IllegalArgumentException("Move " + number + " of the encoded game cannot be played");
+            }
+            game.doMove(move);
+        }
+        return game;
+    }
+
+    /**
+     * @return how many moves have been made since the board was last set,
+     * which is how many can be taken back
+     */
+    public int getMoveCount() {
+        return keyHistorySize;
+    }
+
+    /**
+     * @return the last move made since the board was last set, or null if
+     * there is none
+     */
+    public ChessMove getLastMove() {
+        return canUndoMove() ? Move.toChessMove(moveHistory[keyHistorySize - 1] & MOVE_MASK) : null;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -36,6 +187,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         turn = team;
+        keyHistorySize = 0;
     }
 
     /**
@@ -46,6 +198,16 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Enum identifying the state of a position for the team about to move
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -54,31 +216,17 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        ChessPiece piece = board.getPiece(startPosition);
-        Collection<ChessMove> validMovesArray = new ArrayList<>();
-        if(piece != null){
-            Collection<ChessMove> allMoves = piece.pieceMoves(board, startPosition);
-            for(ChessMove move : allMoves){
-                ChessPiece endPiece = board.getPiece(move.getEndPosition());
-                ChessPiece startPiece = board.getPiece(move.getStartPosition());
-
-                board.addPiece(move.getEndPosition(), startPiece);
-                board.addPiece(move.getStartPosition(), null);
-
-                if(!isInCheck(piece.getTeamColor())){
-                    validMovesArray.add(move);
-                }
-
-                board.addPiece(move.getStartPosition(), startPiece);
-                board.addPiece(move.getEndPosition(), endPiece);
-            }
-        }
-        else {
+        int from = ChessBoard.square(startPosition);
+        if (board.pieceAt(from) == ChessBoard.EMPTY) {
             return null;
         }
 
+        int count = MoveGenerator.legalMoves(board, from, moveBuffer);
+        Collection<ChessMove> validMovesArray = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            validMovesArray.add(Move.toChessMove(moveBuffer[i]));
+        }
         return validMovesArray;
-
     }
 
     /**
@@ -96,26 +244,92 @@ public class ChessGame {
         if(piece.getTeamColor() != turn){
             throw new InvalidMoveException("This piece is trying to move out of turn");
         }
-        Collection<ChessMove> validMove = validMoves(move.getStartPosition());
-        if(!validMove.contains(move)){
+        int encoded;
+        try {
+            encoded = Move.encode(move);
+        } catch (IndexOutOfBoundsException e) {
+            throw new InvalidMoveException("This move leaves the board.");
+        }
+        if(!isLegal(encoded)){
             throw new InvalidMoveException("This move is not valid. Failed validMove validation.");
         }
-        if(move.getPromotionPiece()==null) {
 
-            board.addPiece(move.getEndPosition(), piece);
-            board.addPiece(move.getStartPosition(), null);
+        doMove(encoded);
+    }
+
+    /**
+     * Makes an encoded move for the team whose turn it is, without checking
+     * that it is legal. This is the fast path for search and analysis, which
+     * only play moves from {@link MoveGenerator}.
+     *
+     * @param move a legal encoded move, see {@link Move}
+     */
+    public void doMove(int move) {
+        if (keyHistorySize == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, keyHistorySize * 2);
         }
-        else{
-            ChessPiece promotedPawn = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
-            board.addPiece(move.getEndPosition(), promotedPawn);
-            board.addPiece(move.getStartPosition(), null);
+        if (keyHistorySize >= moveHistory.length) {
+            moveHistory = Arrays.copyOf(moveHistory, keyHistory.length);
         }
-        if(piece.getTeamColor() == TeamColor.WHITE){
-            turn = TeamColor.BLACK;
+        keyHistory[keyHistorySize] = getZobristKey();
+
+        int captured = board.makeMove(move);
+        moveHistory[keyHistorySize++] = move | (captured + 1) << CAPTURE_SHIFT;
+        turn = turn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    /**
+     * Passes the turn to the other team without moving, which search uses to
+     * test whether a position is good even after giving the opponent a free
+     * move. Unlike {@link #setTeamTurn} this keeps the move record, so it has
+     * to be reversed with {@link #undoNullMove} after every move made since is
+     * taken back.
+     */
+    public void doNullMove() {
+        turn = turn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    /**
+     * Reverses {@link #doNullMove}
+     */
+    public void undoNullMove() {
+        doNullMove();
+    }
+
+    /**
+     * @return True if there is a move made since the board was last set that
+     * can be taken back
+     */
+    public boolean canUndoMove() {
+        return keyHistorySize > 0;
+    }
+
+    /**
+     * Takes back the last move made, restoring any captured piece and giving
+     * the turn back to the team that made it
+     *
+     * @return the move taken back
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public ChessMove undoMove() {
+        if (!canUndoMove()) {
+            throw new IllegalStateException("There is no move to take back");
         }
-        else{
-            turn = TeamColor.WHITE;
+        int record = moveHistory[--keyHistorySize];
+        int move = record & MOVE_MASK;
+        board.unmakeMove(move, (record >>> CAPTURE_SHIFT) - 1);
+        turn = ChessBoard.teamOf(board.pieceAt(Move.from(move)));
+        return Move.toChessMove(move);
+    }
+
+    private boolean isLegal(int move) {
+        int count = MoveGenerator.legalMoves(board, Move.from(move), moveBuffer);
+        for (int i = 0; i < count; i++) {
+            if (moveBuffer[i] == move) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -125,39 +339,7 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) throws IllegalArgumentException {
-        ChessPosition kingPosition = null;
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-
-                if (piece != null &&
-                        piece.getPieceType() == ChessPiece.PieceType.KING &&
-                        piece.getTeamColor() == teamColor) {
-                    kingPosition = position;
-                    break;
-                }
-            }
-        }
-
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition enemyPosition = new ChessPosition(row, col);
-                ChessPiece enemyPiece = board.getPiece(enemyPosition);
-
-                if (enemyPiece == null || enemyPiece.getTeamColor() == teamColor) {
-                    continue;
-                }
-
-                Collection<ChessMove> moves = enemyPiece.pieceMoves(board, enemyPosition);
-                for (ChessMove move : moves) {
-                    if (move.getEndPosition().equals(kingPosition)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return MoveGenerator.isInCheck(board, ChessBoard.colorIndex(teamColor));
     }
 
     /**
@@ -170,23 +352,7 @@ public class ChessGame {
         if (!isInCheck(teamColor)){
             return false;
         }
-
-        for (int row = 1; row <= 8; row++) { //iterate through all pieces on the board
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition friendPosition = new ChessPosition(row, col);
-                ChessPiece friendlyPiece = board.getPiece(friendPosition);
-                if (friendlyPiece != null && friendlyPiece.getTeamColor()==teamColor) {
-                    Collection<ChessMove> escapeCheck = validMoves(friendPosition);
-
-                    if(!escapeCheck.isEmpty()){
-                        return false;
-                    }
-                }
-            }
-        }
-
-        return true;
-
+        return !MoveGenerator.hasLegalMove(board, teamColor, moveBuffer);
     }
 
     /**
@@ -197,29 +363,25 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        Collection<ChessMove> staleMate = new ArrayList<>();
         if (isInCheck(teamColor)){
             return false;
         }
+        return !MoveGenerator.hasLegalMove(board, teamColor, moveBuffer);
+    }
 
-        for (int row = 1; row <= 8; row++) { //iterate through all pieces on the board
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition friendPosition = new ChessPosition(row, col);
-                ChessPiece friendlyPiece = board.getPiece(friendPosition);
-                if (friendlyPiece != null && friendlyPiece.getTeamColor()==teamColor) {
-                    Collection<ChessMove> moves = validMoves(friendPosition);
-                    for(ChessMove move: moves){
-                        staleMate.add(move);
-                    }
-
-                }
-            }
-        }
-        if(staleMate.isEmpty()){
-            return true;
+    /**
+     * Determines check, checkmate and stalemate together, with one check test
+     * and one search for a legal move that stops at the first move found
+     *
+     * @param teamColor which team to evaluate
+     * @return the status of the position for the specified team
+     */
+    public GameStatus getGameStatus(TeamColor teamColor) {
+        boolean inCheck = isInCheck(teamColor);
+        if (MoveGenerator.hasLegalMove(board, teamColor, moveBuffer)) {
+            return inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
         }
-
-        return false;
+        return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
     }
 
     /**
@@ -229,6 +391,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        keyHistorySize = 0;
     }
 
     /**
@@ -240,6 +403,34 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * Gets a 64-bit Zobrist key of the position: the piece placement and the
+     * team to move. Equal positions always have equal keys, and the keys are
+     * stable across runs, so they can be used as cache keys.
+     *
+     * @return the position key
+     */
+    public long getZobristKey() {
+        return board.zobristKey() ^ (turn == TeamColor.BLACK ? Zobrist.SIDE_TO_MOVE : 0L);
+    }
+
+    /**
+     * Determines if the current position has occurred at least three times
+     * through moves made since the board and turn were last set
+     *
+     * @return True if the position has been repeated three times
+     */
+    public boolean isThreefoldRepetition() {
+        long key = getZobristKey();
+        int occurrences = 1;
+        for (int i = keyHistorySize - 1; i >= 0 && occurrences < 3; i--) {
+            if (keyHistory[i] == key) {
+                occurrences++;
+            }
+        }
+        return occurrences >= 3;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -251,6 +442,6 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(turn, board);
+        return Long.hashCode(getZobristKey());
     }
 }
@@ -1,13 +1,29 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Objects;
+
 /**
  * Represents moving a chess piece on a chessboard
  * <p>
+ * Moves are immutable. {@link #of} returns one shared instance for every
+ * distinct move between two squares on the board, created the first time it
+ * is asked for and indexed by the move's {@link Move} encoding.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessMove.Serializer.class)
 public class ChessMove {
 
+    private static final ChessMove[] MOVES = new ChessMove[1 << 15];
+
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
@@ -19,6 +35,43 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Gets the shared instance of a move. Moves with a position off the
+     * board are still allowed, but are not cached.
+     *
+     * @param startPosition  the start position
+     * @param endPosition    the end position
+     * @param promotionPiece piece type to promote to, or null
+     * @return a move equal to {@code new ChessMove(startPosition, endPosition, promotionPiece)}
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if (!onBoard(startPosition) || !onBoard(endPosition)) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        return of(Move.encode(ChessBoard.square(startPosition), ChessBoard.square(endPosition), promotionPiece));
+    }
+
+    /**
+     * Gets the shared instance of an encoded move. Moves are immutable, so a
+     * thread that races another to fill a slot just caches an equal copy.
+     */
+    static ChessMove of(int move) {
+        ChessMove cached = MOVES[move];
+        if (cached == null) {
+            cached = new ChessMove(ChessBoard.position(Move.from(move)), ChessBoard.position(Move.to(move)),
+                    Move.promotion(move));
+            MOVES[move] = cached;
+        }
+        return cached;
+    }
+
+    private static boolean onBoard(ChessPosition position) {
+        int row = position.getRow();
+        int col = position.getColumn();
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -57,13 +110,73 @@ public class ChessMove {
             return false;
         }
         ChessMove chessMove = (ChessMove) obj;
-        return java.util.Objects.equals(startPosition, chessMove.startPosition) &&
-                java.util.Objects.equals(endPosition, chessMove.endPosition) &&
+        return Objects.equals(startPosition, chessMove.startPosition) &&
+                Objects.equals(endPosition, chessMove.endPosition) &&
                 promotionPiece == chessMove.promotionPiece;
     }
 
     @Override
     public int hashCode() {
-        return java.util.Objects.hash(startPosition, endPosition, promotionPiece);
+        int result = Objects.hashCode(startPosition);
+        result = 31 * result + Objects.hashCode(endPosition);
+        return 31 * result + Objects.hashCode(promotionPiece);
+    }
+
+    /**
+     * Writes the same JSON as Gson's default field mapping, and reads moves
+     * back as the shared instances
+     */
+    static class Serializer extends TypeAdapter<ChessMove> {
+        private final TypeAdapter<ChessPosition> positions = new ChessPosition.Serializer();
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            if (move == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("startPosition");
+            positions.write(out, move.startPosition);
+            out.name("endPosition");
+            positions.write(out, move.endPosition);
+            if (move.promotionPiece != null) {
+                out.name("promotionPiece").value(move.promotionPiece.name());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startPosition" -> start = positions.read(in);
+                    case "endPosition" -> end = positions.read(in);
+                    case "promotionPiece" -> promotion = readPromotion(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (start == null || end == null) {
+                return new ChessMove(start, end, promotion);
+            }
+            return of(start, end, promotion);
+        }
+
+        private static ChessPiece.PieceType readPromotion(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return ChessPiece.PieceType.valueOf(in.nextString());
+        }
     }
 }
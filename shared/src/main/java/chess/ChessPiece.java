@@ -1,5 +1,12 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -8,11 +15,25 @@ import java.util.Objects;
 /**
  * Represents a single chess piece
  * <p>
+ * Pieces are immutable, and there are only twelve different ones. {@link #of}
+ * returns a shared instance of each, which is what boards hand out.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPiece.Serializer.class)
 public class ChessPiece {
 
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final ChessPiece[] PIECES = new ChessPiece[COLORS.length * TYPES.length];
+
+    static {
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = new ChessPiece(COLORS[i / TYPES.length], TYPES[i % TYPES.length]);
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -21,6 +42,17 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance of a piece
+     *
+     * @param pieceColor the piece's team
+     * @param type       the piece's type
+     * @return a piece equal to {@code new ChessPiece(pieceColor, type)}
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[pieceColor.ordinal() * TYPES.length + type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -84,76 +116,42 @@ public class ChessPiece {
             int newCol = myPosition.getColumn() + step[1];
 
             if (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
-                ChessPosition newPosition = new ChessPosition(newRow, newCol);
+                ChessPosition newPosition = ChessPosition.of(newRow, newCol);
                 ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
 
                 if (pieceAtNewPosition == null || pieceAtNewPosition.getTeamColor() != this.getTeamColor()) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
+                    moves.add(ChessMove.of(myPosition, newPosition, null));
                 }
             }
         }
         return moves;
     }
 
-    private Collection<ChessMove> continuousMoves(ChessBoard board, ChessPosition myPosition, int[][] directions) {
+    private Collection<ChessMove> slidingMoves(ChessBoard board, ChessPosition myPosition, long attacks) {
         List<ChessMove> moves = new ArrayList<>();
 
-        for (int[] direction : directions) {
-            int rowStep = direction[0];
-            int colStep = direction[1];
-
-            int currentRow = myPosition.getRow() + rowStep;
-            int currentCol = myPosition.getColumn() + colStep;
-
-            while (currentRow >= 1 && currentRow <= 8 && currentCol >= 1 && currentCol <= 8) {
-                ChessPosition newPosition = new ChessPosition(currentRow, currentCol);
-                ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition == null) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                } else if (pieceAtNewPosition.getTeamColor() != this.getTeamColor()) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                    break;
-                } else {
-                    break;
-                }
-
-                currentRow += rowStep;
-                currentCol += colStep;
-            }
+        long targets = attacks & ~board.occupancy(ChessBoard.colorIndex(pieceColor));
+        while (targets != 0) {
+            int square = Long.numberOfTrailingZeros(targets);
+            moves.add(ChessMove.of(myPosition, ChessBoard.position(square), null));
+            targets &= targets - 1;
         }
         return moves;
     }
 
     private void addPromotionMoves(List<ChessMove> moves, ChessPosition from, ChessPosition to) {
-        moves.add(new ChessMove(from, to, PieceType.ROOK));
-        moves.add(new ChessMove(from, to, PieceType.QUEEN));
-        moves.add(new ChessMove(from, to, PieceType.KNIGHT));
-        moves.add(new ChessMove(from, to, PieceType.BISHOP));
+        moves.add(ChessMove.of(from, to, PieceType.ROOK));
+        moves.add(ChessMove.of(from, to, PieceType.QUEEN));
+        moves.add(ChessMove.of(from, to, PieceType.KNIGHT));
+        moves.add(ChessMove.of(from, to, PieceType.BISHOP));
     }
 
     private Collection<ChessMove> rookMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] rookDirections = {
-                {0, 1},
-                {1, 0},
-                {-1, 0},
-                {0, -1}
-        };
-        return continuousMoves(board, myPosition, rookDirections);
+        return slidingMoves(board, myPosition, Attacks.rook(ChessBoard.square(myPosition), board.occupied()));
     }
 
     private Collection<ChessMove> queenMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] queenDirections = {
-                {1, 1},
-                {1, -1},
-                {-1, 1},
-                {-1, -1},
-                {0, 1},
-                {1, 0},
-                {-1, 0},
-                {0, -1}
-        };
-        return continuousMoves(board, myPosition, queenDirections);
+        return slidingMoves(board, myPosition, Attacks.queen(ChessBoard.square(myPosition), board.occupied()));
     }
 
     private Collection<ChessMove> pawnMoves(ChessBoard board, ChessPosition myPosition) {
@@ -165,7 +163,7 @@ public class ChessPiece {
                     continue;
                 }
 
-                ChessPosition enemyPosition = new ChessPosition(myPosition.getRow() - 1, column);
+                ChessPosition enemyPosition = ChessPosition.of(myPosition.getRow() - 1, column);
                 ChessPiece enemyPiece = board.getPiece(enemyPosition);
 
                 if (enemyPiece == null || enemyPiece.getTeamColor() != ChessGame.TeamColor.WHITE) {
@@ -175,27 +173,27 @@ public class ChessPiece {
                 if (myPosition.getRow() - 1 == 1) {
                     addPromotionMoves(moves, myPosition, enemyPosition);
                 } else {
-                    moves.add(new ChessMove(myPosition, enemyPosition, null));
+                    moves.add(ChessMove.of(myPosition, enemyPosition, null));
                 }
             }
             if (myPosition.getRow() == 7) {
-                ChessPosition oneStep = new ChessPosition(myPosition.getRow()-1, myPosition.getColumn());
-                ChessPosition twoSteps = new ChessPosition(myPosition.getRow()-2, myPosition.getColumn());
+                ChessPosition oneStep = ChessPosition.of(myPosition.getRow()-1, myPosition.getColumn());
+                ChessPosition twoSteps = ChessPosition.of(myPosition.getRow()-2, myPosition.getColumn());
 
                 if (board.getPiece(oneStep) == null && board.getPiece(twoSteps) == null) {
-                    moves.add(new ChessMove(myPosition, twoSteps, null));
+                    moves.add(ChessMove.of(myPosition, twoSteps, null));
                 }
             }
             int newRow = myPosition.getRow() - 1;
             if (newRow >=1) {
-                ChessPosition newPosition = new ChessPosition(newRow, myPosition.getColumn());
+                ChessPosition newPosition = ChessPosition.of(newRow, myPosition.getColumn());
                 ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
                 if (pieceAtNewPosition == null){
                     if (newRow == 1){
                         addPromotionMoves(moves, myPosition, newPosition);
                     }
                     else{
-                        moves.add(new ChessMove(myPosition, newPosition, null));
+                        moves.add(ChessMove.of(myPosition, newPosition, null));
                     }
 
                 }
@@ -208,7 +206,7 @@ public class ChessPiece {
                     continue;
                 }
 
-                ChessPosition enemyPosition = new ChessPosition(myPosition.getRow() + 1, column);
+                ChessPosition enemyPosition = ChessPosition.of(myPosition.getRow() + 1, column);
                 ChessPiece enemyPiece = board.getPiece(enemyPosition);
 
                 if (enemyPiece == null || enemyPiece.getTeamColor() != ChessGame.TeamColor.BLACK) {
@@ -218,27 +216,27 @@ public class ChessPiece {
                 if (myPosition.getRow() + 1 == 8) {
                     addPromotionMoves(moves, myPosition, enemyPosition);
                 } else {
-                    moves.add(new ChessMove(myPosition, enemyPosition, null));
+                    moves.add(ChessMove.of(myPosition, enemyPosition, null));
                 }
             }
             if (myPosition.getRow() == 2) {
-                ChessPosition oneStep = new ChessPosition(myPosition.getRow()+1, myPosition.getColumn());
-                ChessPosition twoSteps = new ChessPosition(myPosition.getRow()+2, myPosition.getColumn());
+                ChessPosition oneStep = ChessPosition.of(myPosition.getRow()+1, myPosition.getColumn());
+                ChessPosition twoSteps = ChessPosition.of(myPosition.getRow()+2, myPosition.getColumn());
 
                 if (board.getPiece(oneStep) == null && board.getPiece(twoSteps) == null) {
-                    moves.add(new ChessMove(myPosition, twoSteps, null));
+                    moves.add(ChessMove.of(myPosition, twoSteps, null));
                 }
             }
             int newRow = myPosition.getRow() + 1;
             if (newRow <= 8) {
-                ChessPosition newPosition = new ChessPosition(newRow, myPosition.getColumn());
+                ChessPosition newPosition = ChessPosition.of(newRow, myPosition.getColumn());
                 ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
                 if (pieceAtNewPosition == null){
                     if (newRow == 8){
                         addPromotionMoves(moves, myPosition, newPosition);
                     }
                     else{
-                        moves.add(new ChessMove(myPosition, newPosition, null));
+                        moves.add(ChessMove.of(myPosition, newPosition, null));
                     }
                 }
             }
@@ -276,17 +274,14 @@ public class ChessPiece {
     }
 
     private Collection<ChessMove> bishopMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] bishopDirections = {
-                {1, 1},
-                {1, -1},
-                {-1, 1},
-                {-1, -1}
-        };
-        return continuousMoves(board, myPosition, bishopDirections);
+        return slidingMoves(board, myPosition, Attacks.bishop(ChessBoard.square(myPosition), board.occupied()));
     }
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -296,6 +291,47 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return 31 * Objects.hashCode(pieceColor) + Objects.hashCode(type);
+    }
+
+    /**
+     * Writes the same JSON as Gson's default field mapping, and reads
+     * pieces back as the shared instances
+     */
+    static class Serializer extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            if (piece == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("pieceColor").value(piece.pieceColor.name());
+            out.name("type").value(piece.type.name());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessGame.TeamColor color = null;
+            PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "type" -> type = PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new IOException("Chess piece is missing its color or type");
+            }
+            return of(color, type);
+        }
     }
 }
@@ -1,22 +1,56 @@
 package chess;
 
-import java.util.Objects;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 
 /**
  * Represents a single square position on a chess board
  * <p>
+ * Positions are immutable. {@link #of} returns one shared instance per
+ * square, so the engine never allocates positions on the board and equal
+ * positions it hands out are usually the same object.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPosition.Serializer.class)
 public class ChessPosition {
-    private int row;
-    private int column;
+    private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < POSITIONS.length; square++) {
+            POSITIONS[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
+    private final int row;
+    private final int column;
 
     public ChessPosition(int row, int col) {
         this.row = row;
         this.column = col;
     }
 
+    /**
+     * Gets the shared instance for a square. Positions off the board are
+     * still allowed, but are not cached.
+     *
+     * @param row the row, 1-8 on the board
+     * @param col the column, 1-8 on the board
+     * @return a position equal to {@code new ChessPosition(row, col)}
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return POSITIONS[(row - 1) * 8 + (col - 1)];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -52,7 +86,44 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return java.util.Objects.hash(row, column);
+        return 31 * row + column;
     }
 
+    /**
+     * Writes the same JSON as Gson's default field mapping, and reads
+     * positions back as the shared instances
+     */
+    static class Serializer extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            if (position == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("row").value(position.row);
+            out.name("column").value(position.column);
+            out.endObject();
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            int row = 0;
+            int column = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "column" -> column = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return of(row, column);
+        }
+    }
 }
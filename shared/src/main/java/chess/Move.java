@@ -0,0 +1,83 @@
+package chess;
+
+/**
+ * Helpers for moves packed into a single {@code int}, the allocation-free
+ * counterpart of {@link ChessMove} used by {@link MoveGenerator}.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square, both as 0-63
+ * indexes counting from a1 along each row. Bits 12-14 hold the promotion
+ * piece type's ordinal plus one, or zero when the move is not a promotion.
+ * Any two moves that are equal as {@link ChessMove}s encode to the same int.
+ */
+public final class Move {
+
+    /**
+     * Never produced by the move generator, so it can mark "no move"
+     */
+    public static final int NONE = 0;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * @param from      start square, 0-63
+     * @param to        end square, 0-63
+     * @param promotion piece type to promote to, or null
+     * @return the encoded move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion) {
+        return encode(from, to, promotion == null ? ChessBoard.EMPTY : promotion.ordinal());
+    }
+
+    /**
+     * @return the encoded form of a {@link ChessMove}
+     * @throws IndexOutOfBoundsException if either position is off the board
+     */
+    public static int encode(ChessMove move) {
+        return encode(ChessBoard.square(move.getStartPosition()), ChessBoard.square(move.getEndPosition()),
+                move.getPromotionPiece());
+    }
+
+    static int encode(int from, int to, int promotionType) {
+        return from | (to << TO_SHIFT) | ((promotionType + 1) << PROMOTION_SHIFT);
+    }
+
+    /**
+     * @return the start square, 0-63
+     */
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @return the end square, 0-63
+     */
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int type = promotionType(move);
+        return type == ChessBoard.EMPTY ? null : TYPES[type];
+    }
+
+    static int promotionType(int move) {
+        return ((move >>> PROMOTION_SHIFT) & PROMOTION_MASK) - 1;
+    }
+
+    /**
+     * @return the shared {@link ChessMove} equal to the encoded move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(move);
+    }
+}
@@ -0,0 +1,246 @@
+package chess;
+
+/**
+ * Generates legal moves as packed ints (see {@link Move}) into a buffer
+ * supplied by the caller, so the rules engine can enumerate moves without
+ * allocating any objects.
+ * <p>
+ * Legality is decided up front rather than by trying each move: the pieces
+ * giving check and the pieces pinned to their king are found once per call,
+ * then every candidate move is filtered with bit masks. The king may only step
+ * to squares the enemy does not attack, a pinned piece may only move along its
+ * pin line, and while in check other pieces may only capture the checker or
+ * block it. Boards without a king for the moving side, which the tests use to
+ * look at single pieces, accept every move the pieces can make.
+ */
+public final class MoveGenerator {
+
+    /**
+     * A buffer of this length holds every legal move of any position that can
+     * arise in a game
+     */
+    public static final int MAX_MOVES = 256;
+
+    private static final long ALL_SQUARES = -1L;
+    private static final long FIRST_ROW = 0x00000000000000FFL;
+    private static final long LAST_ROW = 0xFF00000000000000L;
+
+    private static final int[] PROMOTION_TYPES = {
+            ChessBoard.QUEEN, ChessBoard.ROOK, ChessBoard.BISHOP, ChessBoard.KNIGHT
+    };
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Writes every legal move for a team into {@code moves}
+     *
+     * @param board the position
+     * @param team  the team to move
+     * @param moves buffer to fill, at least {@link #MAX_MOVES} long
+     * @return the number of moves written
+     */
+    public static int legalMoves(ChessBoard board, ChessGame.TeamColor team, int[] moves) {
+        return legalMoves(board, ChessBoard.colorIndex(team), ALL_SQUARES, moves, false);
+    }
+
+    /**
+     * Writes every legal move for a color index into {@code moves}
+     */
+    static int legalMovesFor(ChessBoard board, int color, int[] moves) {
+        return legalMoves(board, color, ALL_SQUARES, moves, false);
+    }
+
+    /**
+     * Checks whether a team can move at all, stopping at the first piece that
+     * has a legal move
+     *
+     * @param board the position
+     * @param team  the team to move
+     * @param moves scratch buffer, at least {@link #MAX_MOVES} long
+     * @return true if the team has at least one legal move
+     */
+    public static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor team, int[] moves) {
+        return legalMoves(board, ChessBoard.colorIndex(team), ALL_SQUARES, moves, true) > 0;
+    }
+
+    /**
+     * Writes every legal move of the piece on one square into {@code moves}
+     *
+     * @param board the position
+     * @param from  square of the piece to move, 0-63
+     * @param moves buffer to fill, at least {@link #MAX_MOVES} long
+     * @return the number of moves written, zero if the square is empty
+     */
+    public static int legalMoves(ChessBoard board, int from, int[] moves) {
+        int piece = board.pieceAt(from);
+        if (piece == ChessBoard.EMPTY) {
+            return 0;
+        }
+        return legalMoves(board, piece / ChessBoard.PIECE_TYPES, 1L << from, moves, false);
+    }
+
+    /**
+     * @return true if the color has a king and an enemy piece attacks it
+     */
+    static boolean isInCheck(ChessBoard board, int color) {
+        int kingSquare = board.kingSquare(color);
+        return kingSquare < 64 && isAttacked(board, kingSquare, color ^ 1);
+    }
+
+    /**
+     * @return true if any piece of {@code byColor} attacks the square
+     */
+    static boolean isAttacked(ChessBoard board, int square, int byColor) {
+        return attackers(board, square, byColor, board.occupied()) != 0;
+    }
+
+    /**
+     * Finds the pieces of one color attacking a square, treating
+     * {@code occupied} as the set of blocking squares for sliding pieces
+     */
+    static long attackers(ChessBoard board, int square, int byColor, long occupied) {
+        long queens = board.pieces(byColor, ChessBoard.QUEEN);
+        return (Attacks.knight(square) & board.pieces(byColor, ChessBoard.KNIGHT))
+                | (Attacks.pawn(byColor ^ 1, square) & board.pieces(byColor, ChessBoard.PAWN))
+                | (Attacks.king(square) & board.pieces(byColor, ChessBoard.KING))
+                | (Attacks.bishop(square, occupied) & (board.pieces(byColor, ChessBoard.BISHOP) | queens))
+                | (Attacks.rook(square, occupied) & (board.pieces(byColor, ChessBoard.ROOK) | queens));
+    }
+
+    private static int legalMoves(ChessBoard board, int color, long fromMask, int[] moves, boolean firstOnly) {
+        int enemyColor = color ^ 1;
+        long own = board.occupancy(color);
+        long enemy = board.occupancy(enemyColor);
+        long occupied = own | enemy;
+
+        int kingSquare = board.kingSquare(color);
+        long checkers = 0;
+        long pinned = 0;
+        long evasions = ALL_SQUARES;
+        if (kingSquare < 64) {
+            checkers = attackers(board, kingSquare, enemyColor, occupied);
+            pinned = pinnedPieces(board, kingSquare, color, occupied);
+            if (Long.bitCount(checkers) > 1) {
+                evasions = 0;
+            } else if (checkers != 0) {
+                evasions = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+            }
+        }
+
+        int count = 0;
+        long pieces = own & fromMask;
+        while (pieces != 0 && !(firstOnly && count > 0)) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            int type = board.pieceAt(from) % ChessBoard.PIECE_TYPES;
+            if (type == ChessBoard.KING) {
+                count = kingMoves(board, from, enemyColor, own, occupied, moves, count);
+                continue;
+            }
+
+            long allowed = evasions;
+            if ((pinned & (1L << from)) != 0) {
+                allowed &= Attacks.line(kingSquare, from);
+            }
+            if (allowed == 0) {
+                continue;
+            }
+
+            if (type == ChessBoard.PAWN) {
+                count = pawnMoves(color, from, occupied, enemy, allowed, moves, count);
+            } else {
+                count = addMoves(from, pieceAttacks(type, from, occupied) & ~own & allowed, moves, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the mover's pieces that are the only thing standing between their
+     * king and an enemy rook, bishop or queen
+     */
+    private static long pinnedPieces(ChessBoard board, int kingSquare, int color, long occupied) {
+        int enemyColor = color ^ 1;
+        long enemy = board.occupancy(enemyColor);
+        long queens = board.pieces(enemyColor, ChessBoard.QUEEN);
+        long snipers = (Attacks.rook(kingSquare, enemy) & (board.pieces(enemyColor, ChessBoard.ROOK) | queens))
+                | (Attacks.bishop(kingSquare, enemy) & (board.pieces(enemyColor, ChessBoard.BISHOP) | queens));
+
+        long pinned = 0;
+        while (snipers != 0) {
+            long blockers = Attacks.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.occupancy(color);
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+
+    private static int kingMoves(ChessBoard board, int from, int enemyColor, long own, long occupied,
+                                 int[] moves, int count) {
+        long withoutKing = occupied & ~(1L << from);
+        long targets = Attacks.king(from) & ~own;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (attackers(board, to, enemyColor, withoutKing) == 0) {
+                moves[count++] = Move.encode(from, to, ChessBoard.EMPTY);
+            }
+        }
+        return count;
+    }
+
+    private static long pieceAttacks(int type, int from, long occupied) {
+        if (type == ChessBoard.KNIGHT) {
+            return Attacks.knight(from);
+        } else if (type == ChessBoard.BISHOP) {
+            return Attacks.bishop(from, occupied);
+        } else if (type == ChessBoard.ROOK) {
+            return Attacks.rook(from, occupied);
+        } else {
+            return Attacks.queen(from, occupied);
+        }
+    }
+
+    private static int pawnMoves(int color, int from, long occupied, long enemy, long allowed,
+                                 int[] moves, int count) {
+        long bit = 1L << from;
+        long targets = Attacks.pawn(color, from) & enemy;
+        if (color == ChessBoard.WHITE) {
+            long single = (bit << 8) & ~occupied;
+            targets |= single;
+            if (from >= 8 && from < 16) {
+                targets |= (single << 8) & ~occupied;
+            }
+        } else {
+            long single = (bit >>> 8) & ~occupied;
+            targets |= single;
+            if (from >= 48 && from < 56) {
+                targets |= (single >>> 8) & ~occupied;
+            }
+        }
+        targets &= allowed;
+
+        long promotions = targets & (FIRST_ROW | LAST_ROW);
+        count = addMoves(from, targets & ~promotions, moves, count);
+        while (promotions != 0) {
+            int to = Long.numberOfTrailingZeros(promotions);
+            promotions &= promotions - 1;
+            for (int type : PROMOTION_TYPES) {
+                moves[count++] = Move.encode(from, to, type);
+            }
+        }
+        return count;
+    }
+
+    private static int addMoves(int from, long targets, int[] moves, int count) {
+        while (targets != 0) {
+            moves[count++] = Move.encode(from, Long.numberOfTrailingZeros(targets), ChessBoard.EMPTY);
+            targets &= targets - 1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,171 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs {@link Perft} across the threads of a {@link ForkJoinPool}.
+ * <p>
+ * Boards are mutable, so every task walks its own copy: a task makes each of
+ * its moves on a fresh copy of its board and forks a subtask for the result.
+ * Splitting continues down the tree until {@link #SEQUENTIAL_DEPTH} plies
+ * remain, which produces thousands of similar sized tasks for deep searches
+ * and keeps every worker busy even when the root has fewer moves than the
+ * pool has threads. The game passed in is never modified.
+ */
+public final class ParallelPerft {
+
+    /**
+     * Subtrees at most this deep are counted by one thread; below this the
+     * cost of copying a board outweighs the work saved
+     */
+    static final int SEQUENTIAL_DEPTH = 3;
+
+    private ParallelPerft() {
+    }
+
+    /**
+     * Counts the positions reachable in exactly {@code depth} moves
+     *
+     * @param game  the position to start from; its team to move moves first
+     * @param depth number of plies to search, at least 0
+     * @param pool  the pool to run on
+     * @return number of leaf positions
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool) {
+        checkDepth(depth);
+        return pool.invoke(new PerftTask(new ChessBoard(game.getBoard()), colorToMove(game), depth));
+    }
+
+    /**
+     * Counts leaf positions separately below each legal move, which is how
+     * perft mismatches are narrowed down to a single move
+     *
+     * @param game  the position to start from
+     * @param depth number of plies to search including the first move, at least 1
+     * @param pool  the pool to run on
+     * @return leaf counts keyed by first move, in move generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        ChessBoard board = game.getBoard();
+        int color = colorToMove(game);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.legalMovesFor(board, color, moves);
+
+        List<PerftTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(PerftTask.after(board, moves[i], color, depth - 1));
+        }
+        pool.invoke(new AllTasks(tasks));
+
+        Map<ChessMove, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            result.put(Move.toChessMove(moves[i]), tasks.get(i).join());
+        }
+        return result;
+    }
+
+    /**
+     * Counts leaf positions for many games at once, sharing the pool between
+     * them so small and large trees balance out
+     *
+     * @param games the positions to start from
+     * @param depth number of plies to search, at least 0
+     * @param pool  the pool to run on
+     * @return number of leaf positions for each game, in the same order
+     */
+    public static long[] perftAll(List<ChessGame> games, int depth, ForkJoinPool pool) {
+        checkDepth(depth);
+        List<PerftTask> tasks = new ArrayList<>(games.size());
+        for (ChessGame game : games) {
+            tasks.add(new PerftTask(new ChessBoard(game.getBoard()), colorToMove(game), depth));
+        }
+        pool.invoke(new AllTasks(tasks));
+
+        long[] result = new long[tasks.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = tasks.get(i).join();
+        }
+        return result;
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth must not be negative");
+        }
+    }
+
+    private static int colorToMove(ChessGame game) {
+        return ChessBoard.colorIndex(game.getTeamTurn());
+    }
+
+    /**
+     * Counts one subtree on a board owned by the task
+     */
+    private static final class PerftTask extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final int color;
+        private final int depth;
+
+        PerftTask(ChessBoard board, int color, int depth) {
+            this.board = board;
+            this.color = color;
+            this.depth = depth;
+        }
+
+        /**
+         * @return a task for the position after {@code move}, on a copy of the board
+         */
+        static PerftTask after(ChessBoard board, int move, int color, int depth) {
+            ChessBoard copy = new ChessBoard(board);
+            copy.makeMove(move);
+            return new PerftTask(copy, color ^ 1, depth);
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH) {
+                return Perft.perft(board, color, depth, new int[Math.max(depth, 1)][MoveGenerator.MAX_MOVES]);
+            }
+
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int count = MoveGenerator.legalMovesFor(board, color, moves);
+            List<PerftTask> children = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                children.add(after(board, moves[i], color, depth - 1));
+            }
+            invokeAll(children);
+
+            long nodes = 0;
+            for (PerftTask child : children) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Runs a list of independent tasks, so they can be submitted to the pool
+     * as one unit from outside it
+     */
+    private static final class AllTasks extends RecursiveTask<Void> {
+        private final List<PerftTask> tasks;
+
+        AllTasks(List<PerftTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected Void compute() {
+            invokeAll(tasks);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package chess;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * <p>
+ * Node counts for well-known positions are published, so comparing against
+ * them checks move generation exhaustively, and timing the walk measures raw
+ * generator throughput. Run {@link #main} for a nodes-per-second benchmark of
+ * the starting position.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the positions reachable in exactly {@code depth} moves. The game
+     * is walked in place and left exactly as it was found.
+     *
+     * @param game  the position to start from; its team to move moves first
+     * @param depth number of plies to search, at least 0
+     * @return number of leaf positions
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth must not be negative");
+        }
+        int color = ChessBoard.colorIndex(game.getTeamTurn());
+        return perft(game.getBoard(), color, depth, new int[Math.max(depth, 1)][MoveGenerator.MAX_MOVES]);
+    }
+
+    static long perft(ChessBoard board, int color, int depth, int[][] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = buffers[depth - 1];
+        int count = MoveGenerator.legalMovesFor(board, color, moves);
+        if (depth == 1) {
+            return count;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            int captured = board.makeMove(moves[i]);
+            nodes += perft(board, color ^ 1, depth - 1, buffers);
+            board.unmakeMove(moves[i], captured);
+        }
+        return nodes;
+    }
+
+    /**
+     * Benchmarks perft from the starting position
+     *
+     * @param args optional search depth, 5 by default
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        ChessGame game = new ChessGame();
+
+        for (int warmup = 0; warmup < 3; warmup++) {
+            perft(game, Math.min(depth, 4));
+        }
+
+        long start = System.nanoTime();
+        long nodes = perft(game, depth);
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        System.out.printf("perft(%d) = %d nodes in %.3f s (%.0f nodes/s)%n",
+                depth, nodes, elapsed / 1e9, nodes * 1e9 / elapsed);
+    }
+}
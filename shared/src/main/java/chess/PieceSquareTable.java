@@ -0,0 +1,291 @@
+package chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluation weights: a value in centipawns for every piece on every square,
+ * its material value included.
+ * <p>
+ * A {@link ChessBoard} keeps the sum of these values for its pieces, white's
+ * counted positive and black's negative, updated on every piece placed or
+ * removed, so reading a position's score costs nothing however often search
+ * asks for it.
+ * <p>
+ * Weights are given from white's side and mirrored for black. They can be
+ * loaded from a text file, so they can be tuned without recompiling. The file
+ * lists each piece type once, in any order: its name, its material value,
+ * then 64 square bonuses as eight rows of eight, row 8 first, the way a board
+ * is printed. Anything after a {@code #} on a line is a comment. Instances are
+ * immutable.
+ */
+public final class PieceSquareTable {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    /**
+     * Largest score any position may get. Search scores from 29616 up mean
+     * a forced mate, and its transposition table only holds 16-bit scores,
+     * so static scores are kept below both.
+     */
+    public static final int MAX_SCORE = 29_000;
+
+    /**
+     * Material plus a bonus for knights, bishops and queens near the center
+     * and for pawns that have advanced
+     */
+    public static final PieceSquareTable DEFAULT = defaultTable();
+
+    /**
+     * Values indexed by piece code times 64 plus square, black's negated
+     */
+    private final int[] values = new int[2 * ChessBoard.PIECE_TYPES * 64];
+    private final int[] material = new int[TYPES.length];
+    private final int[][] bonuses = new int[TYPES.length][];
+
+    /**
+     * @param material material values indexed by {@link ChessPiece.PieceType}
+     *                 ordinal
+     * @param bonuses  for each piece type by ordinal, 64 bonuses indexed by
+     *                 square from white's side, 0 for a1 up to 63 for h8
+     */
+    public PieceSquareTable(int[] material, int[][] bonuses) {
+        if (material.length != TYPES.length || bonuses.length != TYPES.length) {
+            throw new IllegalArgumentException("Weights are needed for all " + TYPES.length + " piece types");
+        }
+        for (int type = 0; type < TYPES.length; type++) {
+            if (bonuses[type].length != 64) {
+                throw new IllegalArgumentException("Weights for " + TYPES[type] + " need 64 squares");
+            }
+            this.material[type] = material[type];
+            this.bonuses[type] = bonuses[type].clone();
+            for (int square = 0; square < 64; square++) {
+                int value = material[type] + bonuses[type][square];
+                values[ChessBoard.pieceCode(ChessBoard.WHITE, type) * 64 + square] = value;
+                values[ChessBoard.pieceCode(ChessBoard.BLACK, type) * 64 + (square ^ 56)] = -value;
+            }
+        }
+        long maxScore = maxScore(material, bonuses);
+        if (maxScore > MAX_SCORE) {
+            throw new IllegalArgumentException("These weights could score a position at " + maxScore
+                    + ", which search would take for a forced mate; the most allowed is " + MAX_SCORE);
+        }
+    }
+
+    /**
+     * Bounds the score of any position: each side has one king, whose
+     * material cancels out, and at most fifteen other pieces, any of which
+     * may be a promoted pawn
+     */
+    private static long maxScore(int[] material, int[][] bonuses) {
+        long king = 0;
+        long other = 0;
+        for (int type = 0; type < TYPES.length; type++) {
+            for (int square = 0; square < 64; square++) {
+                if (TYPES[type] == ChessPiece.PieceType.KING) {
+                    king = Math.max(king, Math.abs((long) bonuses[type][square]));
+                } else {
+                    other = Math.max(other, Math.abs((long) material[type] + bonuses[type][square]));
+                }
+            }
+        }
+        return 2 * (king + 15 * other);
+    }
+
+    /**
+     * Reads weights from a file
+     *
+     * @param file the weights file
+     * @return the weights
+     * @throws IOException if the file cannot be read or is not a weights file
+     */
+    public static PieceSquareTable load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads weights in the file format
+     *
+     * @param in the weights text
+     * @return the weights
+     * @throws IOException if the text cannot be read or is not in the format
+     */
+    public static PieceSquareTable read(Reader in) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            int comment = line.indexOf('#');
+            String content = comment < 0 ? line : line.substring(0, comment);
+            for (String token : content.trim().split("\\s+")) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+
+        int[] material = new int[TYPES.length];
+        int[][] bonuses = new int[TYPES.length][];
+        int next = 0;
+        while (next < tokens.size()) {
+            ChessPiece.PieceType type;
+            try {
+                type = ChessPiece.PieceType.valueOf(tokens.get(next++));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Expected a piece type but found " + tokens.get(next - 1));
+            }
+            if (bonuses[type.ordinal()] != null) {
+                throw new IOException("Weights for " + type + " are given twice");
+            }
+            if (next + 65 > tokens.size()) {
+                throw new IOException("Weights for " + type + " need a value and 64 squares");
+            }
+            material[type.ordinal()] = number(tokens.get(next++));
+            int[] squares = new int[64];
+            for (int row = 7; row >= 0; row--) {
+                for (int col = 0; col < 8; col++) {
+                    squares[row * 8 + col] = number(tokens.get(next++));
+                }
+            }
+            bonuses[type.ordinal()] = squares;
+        }
+        for (ChessPiece.PieceType type : TYPES) {
+            if (bonuses[type.ordinal()] == null) {
+                throw new IOException("Weights for " + type + " are missing");
+            }
+        }
+        try {
+            return new PieceSquareTable(material, bonuses);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the weights in the file format, as a starting point for tuning
+     *
+     * @param out where to write
+     * @throws IOException if writing fails
+     */
+    public void write(Writer out) throws IOException {
+        for (ChessPiece.PieceType type : TYPES) {
+            out.write(type + " " + material[type.ordinal()] + "\n");
+            for (int row = 7; row >= 0; row--) {
+                StringBuilder line = new StringBuilder();
+                for (int col = 0; col < 8; col++) {
+                    line.append(String.format("%5d", bonuses[type.ordinal()][row * 8 + col]));
+                }
+                out.write(line.append('\n').toString());
+            }
+        }
+    }
+
+    /**
+     * @return the material value of a piece type in centipawns
+     */
+    public int material(ChessPiece.PieceType type) {
+        return material[type.ordinal()];
+    }
+
+    /**
+     * @return the value of a piece on a square, positive for white's pieces
+     * and negative for black's
+     */
+    public int value(ChessPiece piece, ChessPosition position) {
+        return value(ChessBoard.pieceCode(piece.getTeamColor(), piece.getPieceType()), ChessBoard.square(position));
+    }
+
+    int value(int code, int square) {
+        return values[code * 64 + square];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PieceSquareTable that && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    private static int number(String token) throws IOException {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IOException("Expected a number but found " + token);
+        }
+    }
+
+    private static PieceSquareTable defaultTable() {
+        try {
+            return read(new StringReader("""
+                    KING 0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                    QUEEN 900
+                      -20  -10  -10  -10  -10  -10  -10  -20
+                      -10    0    0    0    0    0    0  -10
+                      -10    0    5   10   10    5    0  -10
+                      -10    5   10   15   15   10    5  -10
+                      -10    5   10   15   15   10    5  -10
+                      -10    0    5   10   10    5    0  -10
+                      -10    0    0    0    0    0    0  -10
+                      -20  -10  -10  -10  -10  -10  -10  -20
+                    BISHOP 330
+                      -20  -10  -10  -10  -10  -10  -10  -20
+                      -10    0    0    0    0    0    0  -10
+                      -10    0    5   10   10    5    0  -10
+                      -10    5   10   15   15   10    5  -10
+                      -10    5   10   15   15   10    5  -10
+                      -10    0    5   10   10    5    0  -10
+                      -10    0    0    0    0    0    0  -10
+                      -20  -10  -10  -10  -10  -10  -10  -20
+                    KNIGHT 320
+                      -20  -10  -10  -10  -10  -10  -10  -20
+                      -10    0    0    0    0    0    0  -10
+                      -10    0    5   10   10    5    0  -10
+                      -10    5   10   15   15   10    5  -10
+                      -10    5   10   15   15   10    5  -10
+                      -10    0    5   10   10    5    0  -10
+                      -10    0    0    0    0    0    0  -10
+                      -20  -10  -10  -10  -10  -10  -10  -20
+                    ROOK 500
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                    PAWN 100
+                        0    0    0    0    0    0    0    0
+                       60   60   60   60   60   60   60   60
+                       35   35   35   35   35   35   35   35
+                       20   20   20   20   20   20   20   20
+                       10   10   10   10   10   10   10   10
+                        5    5    5    5    5    5    5    5
+                        0    0    0    0    0    0    0    0
+                        0    0    0    0    0    0    0    0
+                    """));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
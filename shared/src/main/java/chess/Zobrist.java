@@ -0,0 +1,44 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing of positions.
+ * <p>
+ * A position's key is the XOR of one key per piece on its square, plus
+ * {@link #SIDE_TO_MOVE} when black is to move, so a move updates it with a
+ * few XORs instead of rehashing the board. The keys come from a fixed-seed
+ * generator and must never change: position keys are meant to be stored and
+ * compared across processes.
+ */
+final class Zobrist {
+
+    static final long SIDE_TO_MOVE;
+
+    private static final long[][] PIECE_SQUARE = new long[2 * ChessBoard.PIECE_TYPES][64];
+
+    static {
+        long[] state = {0x3C6EF372FE94F82BL};
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = next(state);
+            }
+        }
+        SIDE_TO_MOVE = next(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key for a piece code standing on a square
+     */
+    static long piece(int code, int square) {
+        return PIECE_SQUARE[code][square];
+    }
+
+    private static long next(long[] state) {
+        long z = (state[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
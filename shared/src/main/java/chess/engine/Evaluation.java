@@ -0,0 +1,45 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTable;
+
+/**
+ * Static evaluation: material plus a bonus for well placed pieces, as given
+ * by the board's {@link PieceSquareTable}. The board keeps that score up to
+ * date as moves are made and taken back, so evaluating a position only reads
+ * it. Scores are in centipawns from the point of view of the side to move.
+ */
+public final class Evaluation {
+
+    private Evaluation() {
+    }
+
+    /**
+     * @return the material value of a piece type in centipawns under the
+     * default weights; kings are 0
+     */
+    public static int value(ChessPiece.PieceType type) {
+        return PieceSquareTable.DEFAULT.material(type);
+    }
+
+    /**
+     * @param board the position
+     * @param side  the side to move
+     * @return the score for {@code side}, positive when it is ahead
+     */
+    public static int evaluate(ChessBoard board, ChessGame.TeamColor side) {
+        int score = board.getPieceSquareScore();
+        return side == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return True if the team has a piece other than pawns and its king,
+     * which makes zugzwang unlikely enough for null move pruning
+     */
+    static boolean hasPieces(ChessBoard board, ChessGame.TeamColor team) {
+        return (board.getPieces(team, ChessPiece.PieceType.KNIGHT) | board.getPieces(team, ChessPiece.PieceType.BISHOP)
+                | board.getPieces(team, ChessPiece.PieceType.ROOK) | board.getPieces(team, ChessPiece.PieceType.QUEEN)) != 0;
+    }
+}
@@ -0,0 +1,148 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PieceSquareTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Multi-threaded search in the "Lazy SMP" style: every thread runs an
+ * ordinary {@link Searcher} on the same root, and they cooperate only through
+ * one shared {@link TranspositionTable}. Whatever one thread stores, the
+ * others find as cutoffs and move hints, so together they reach a given depth
+ * sooner than one thread would.
+ * <p>
+ * The calling thread runs the main search under the request's limits. Helper
+ * threads from an executor start alternately one ply deeper, so they fill the
+ * table ahead of the main search instead of duplicating it, and are stopped
+ * as soon as the main search finishes. A node budget is split evenly among
+ * the threads, so a search visits about as many positions in total as it
+ * would on one thread. The answer comes from whichever thread finished the
+ * deepest iteration.
+ * <p>
+ * Each thread keeps its searcher between requests, so searches allocate
+ * little beyond copying the game. Instances are thread safe.
+ */
+public final class LazySmpSearcher {
+
+    private final TranspositionTable table;
+    private final ExecutorService helpers;
+    private final ThreadLocal<Searcher> searchers;
+
+    /**
+     * @param table   the table all threads share
+     * @param helpers runs the helper threads; it should have at least as many
+     *                threads as the largest request uses, less one
+     */
+    public LazySmpSearcher(TranspositionTable table, ExecutorService helpers) {
+        this(table, null, helpers);
+    }
+
+    /**
+     * @param table     the table all threads share
+     * @param tablebase the endgame tables every thread probes, or null
+     * @param helpers   runs the helper threads; it should have at least as many
+     *                  threads as the largest request uses, less one
+     */
+    public LazySmpSearcher(TranspositionTable table, Tablebase tablebase, ExecutorService helpers) {
+        this(table, tablebase, null, helpers);
+    }
+
+    /**
+     * @param table     the table all threads share
+     * @param tablebase the endgame tables every thread probes, or null
+     * @param weights   the evaluation weights every thread uses, or null to
+     *                  use those of the board searched
+     * @param helpers   runs the helper threads; it should have at least as many
+     *                  threads as the largest request uses, less one
+     */
+    public LazySmpSearcher(TranspositionTable table, Tablebase tablebase, PieceSquareTable weights,
+                           ExecutorService helpers) {
+        this.table = table;
+        this.helpers = helpers;
+        this.searchers = ThreadLocal.withInitial(() -> new Searcher(table, tablebase, weights));
+    }
+
+    /**
+     * Finds the best move for the side to move
+     *
+     * @param position the game to search; it is not modified
+     * @param limits   when to stop searching
+     * @param threads  number of threads to search with, including the caller's
+     * @return the best move found, with the nodes of every thread counted
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits, int threads) {
+        return search(position, limits, threads, null);
+    }
+
+    /**
+     * Finds the best move for the side to move, giving up as soon as
+     * {@code cancel} is set. A cancelled search may not have finished any
+     * iteration, so its result is only worth using if it was not cancelled.
+     *
+     * @param position the game to search; it is not modified
+     * @param limits   when to stop searching
+     * @param threads  number of threads to search with, including the caller's
+     * @param cancel   set from any thread to stop the search, or null
+     * @return the best move found, with the nodes of every thread counted
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits, int threads, AtomicBoolean cancel) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        table.newSearch();
+        if (threads == 1) {
+            return searchers.get().search(position, limits, 1, cancel);
+        }
+
+        // Every thread gets an equal share of the node budget, so together they visit no more than one would
+        long nodesEach = limits.maxNodes() == Long.MAX_VALUE
+                ? Long.MAX_VALUE : Math.max(1, limits.maxNodes() / threads);
+        SearchLimits mainLimits = limits.withNodes(nodesEach);
+        SearchLimits helperLimits = new SearchLimits(SearchLimits.MAX_DEPTH, limits.maxMillis(), nodesEach);
+        AtomicBoolean abort = new AtomicBoolean();
+        List<Future<SearchResult>> results = new ArrayList<>(threads - 1);
+        for (int helper = 1; helper < threads; helper++) {
+            int firstDepth = 1 + (helper & 1);
+            results.add(helpers.submit(() -> abort.get()
+                    ? null : searchers.get().search(position, helperLimits, firstDepth, abort)));
+        }
+
+        SearchResult best;
+        try {
+            best = searchers.get().search(position, mainLimits, 1, cancel);
+        } finally {
+            abort.set(true);
+        }
+
+        long nodes = best.nodes();
+        for (Future<SearchResult> future : results) {
+            SearchResult result = join(future);
+            if (result == null) {
+                continue;
+            }
+            nodes += result.nodes();
+            if (result.depth() > best.depth() && result.bestMove() != null) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), nodes);
+    }
+
+    private static SearchResult join(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("helper search failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * An opening book in the Polyglot file layout, read through a memory map.
+ * <p>
+ * The file is a sequence of 16 byte big-endian entries sorted by position
+ * key: the key (8 bytes), a move (2 bytes), a weight (2 bytes) and a learn
+ * field (4 bytes, ignored). A move packs the end square in bits 0-5 and the
+ * start square in bits 6-11, both counting from a1 along each row like
+ * {@link Move}, and the promotion piece in bits 12-14 (1 knight, 2 bishop,
+ * 3 rook, 4 queen).
+ * <p>
+ * The file is mapped rather than read, so the book takes no heap space, the
+ * operating system shares its pages between every thread and process using
+ * it, and a lookup is a binary search touching a few pages. Lookups only read
+ * the map at absolute offsets, so one book can be used from any number of
+ * threads.
+ * <p>
+ * Position keys come from a key function, by default
+ * {@link ChessGame#getZobristKey}, which the game keeps up to date as moves
+ * are made. Books written by {@link Builder} use the same keys. Books from
+ * other Polyglot tools use Polyglot's own key table, so reading them needs a
+ * key function that computes those keys. A book with no moves for the
+ * starting position under its key function is refused when opened, since
+ * it is almost certainly keyed differently and would never be used.
+ */
+public final class OpeningBook {
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int MOVE_OFFSET = 8;
+    private static final int WEIGHT_OFFSET = 10;
+
+    /**
+     * The starting position's key under Polyglot's own key table, as given in
+     * the Polyglot book format description
+     */
+    private static final long POLYGLOT_START_KEY = 0x463B96181691FC9CL;
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            null, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN
+    };
+
+    private final ByteBuffer entries;
+    private final int size;
+    private final ToLongFunction<ChessGame> keys;
+
+    private OpeningBook(ByteBuffer entries, ToLongFunction<ChessGame> keys) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+        this.keys = keys;
+    }
+
+    /**
+     * Maps a book keyed by {@link ChessGame#getZobristKey}
+     *
+     * @param file the book file
+     * @return the book
+     * @throws IOException if the file cannot be mapped
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        return open(file, ChessGame::getZobristKey);
+    }
+
+    /**
+     * Maps a book whose positions are keyed by the given function
+     *
+     * @param file the book file
+     * @param keys computes the key of a position as the book stores it
+     * @return the book
+     * @throws IOException if the file cannot be mapped, is larger than 2 GB,
+     *                     is not a whole number of entries, or has entries but
+     *                     none for the starting position under these keys
+     */
+    public static OpeningBook open(Path file, ToLongFunction<ChessGame> keys) throws IOException {
+        OpeningBook book;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE || length % ENTRY_BYTES != 0) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            book = new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, length), keys);
+        }
+        if (book.size > 0 && !book.hasKey(keys.applyAsLong(new ChessGame()))) {
+            if (book.hasKey(POLYGLOT_START_KEY)) {
+                throw new IOException(file + " is keyed with Polyglot's key table, which this engine does not"
+                        + " compute; open it with a key function for Polyglot keys");
+            }
+            throw new IOException(file + " has no moves for the starting position under these keys,"
+                    + " so it would never be used");
+        }
+        return book;
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Lists the book's moves for a position. Moves that are not legal in the
+     * position, such as castling, which this engine does not play, are left
+     * out.
+     *
+     * @param game the position
+     * @return the moves with their weights, highest weight first; empty if the
+     * position is not in the book
+     */
+    public List<BookMove> moves(ChessGame game) {
+        List<BookMove> result = new ArrayList<>();
+        long key = keys.applyAsLong(game);
+        int first = firstIndex(key);
+        if (first == size || entries.getLong(first * ENTRY_BYTES) != key) {
+            return result;
+        }
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int legalCount = MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), legal);
+
+        for (int i = first; i < size && entries.getLong(i * ENTRY_BYTES) == key; i++) {
+            int move = toMove(entries.getShort(i * ENTRY_BYTES + MOVE_OFFSET) & 0xFFFF);
+            int weight = entries.getShort(i * ENTRY_BYTES + WEIGHT_OFFSET) & 0xFFFF;
+            if (move != Move.NONE && weight > 0 && contains(legal, legalCount, move)) {
+                result.add(new BookMove(Move.toChessMove(move), weight));
+            }
+        }
+        result.sort(Comparator.comparingInt(BookMove::weight).reversed());
+        return result;
+    }
+
+    /**
+     * Picks a book move at random, with each move's chance in proportion to
+     * its weight, so bots do not always play the same opening
+     *
+     * @param game   the position
+     * @param random the source of randomness
+     * @return a book move, or null if the position is not in the book
+     */
+    public ChessMove pickMove(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = moves(game);
+        int total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (total == 0) {
+            return null;
+        }
+        int choice = random.nextInt(total);
+        for (BookMove move : moves) {
+            choice -= move.weight();
+            if (choice < 0) {
+                return move.move();
+            }
+        }
+        return null;
+    }
+
+    private boolean hasKey(long key) {
+        int first = firstIndex(key);
+        return first < size && entries.getLong(first * ENTRY_BYTES) == key;
+    }
+
+    /**
+     * @return the index of the first entry whose key is not below
+     * {@code key}; keys are sorted as unsigned numbers
+     */
+    private int firstIndex(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(entries.getLong(mid * ENTRY_BYTES), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int toMove(int bookMove) {
+        int promotion = (bookMove >>> 12) & 0x7;
+        if (promotion >= PROMOTIONS.length) {
+            return Move.NONE;
+        }
+        return Move.encode((bookMove >>> 6) & 0x3F, bookMove & 0x3F, PROMOTIONS[promotion]);
+    }
+
+    private static int toBookMove(ChessMove move) {
+        int encoded = Move.encode(move);
+        int promotion = 0;
+        for (int i = 1; i < PROMOTIONS.length; i++) {
+            if (PROMOTIONS[i] == move.getPromotionPiece()) {
+                promotion = i;
+            }
+        }
+        return Move.to(encoded) | Move.from(encoded) << 6 | promotion << 12;
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A move from the book
+     *
+     * @param move   the move
+     * @param weight how often the move should be chosen relative to the others
+     */
+    public record BookMove(ChessMove move, int weight) {
+    }
+
+    /**
+     * Collects positions and moves and writes them as a book file
+     */
+    public static final class Builder {
+        private final ToLongFunction<ChessGame> keys;
+        private final List<long[]> entries = new ArrayList<>();
+
+        /**
+         * Creates a builder for books keyed by {@link ChessGame#getZobristKey}
+         */
+        public Builder() {
+            this(ChessGame::getZobristKey);
+        }
+
+        /**
+         * @param keys computes the key of a position
+         */
+        public Builder(ToLongFunction<ChessGame> keys) {
+            this.keys = keys;
+        }
+
+        /**
+         * Adds a move for a position
+         *
+         * @param game   the position
+         * @param move   the move to play from it
+         * @param weight relative weight, 1-65535
+         * @return this builder
+         */
+        public Builder add(ChessGame game, ChessMove move, int weight) {
+            if (weight < 1 || weight > 0xFFFF) {
+                throw new IllegalArgumentException("weight must be between 1 and 65535");
+            }
+            entries.add(new long[]{keys.applyAsLong(game), toBookMove(move), weight});
+            return this;
+        }
+
+        /**
+         * Writes the book, sorted by key as readers expect
+         *
+         * @param file the file to write
+         * @throws IOException if the file cannot be written
+         */
+        public void write(Path file) throws IOException {
+            entries.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+            ByteBuffer buffer = ByteBuffer.allocate(entries.size() * ENTRY_BYTES);
+            for (long[] entry : entries) {
+                buffer.putLong(entry[0]);
+                buffer.putShort((short) entry[1]);
+                buffer.putShort((short) entry[2]);
+                buffer.putInt(0);
+            }
+            Files.write(file, buffer.array());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package chess.engine;
+
+/**
+ * How much work a {@link Searcher} may spend on one search. The search stops
+ * at whichever limit it reaches first, and always finishes at least a one
+ * ply search so there is a move to play.
+ *
+ * @param maxDepth  deepest iteration to search, in plies
+ * @param maxMillis wall clock budget in milliseconds
+ * @param maxNodes  number of positions the search may visit
+ */
+public record SearchLimits(int maxDepth, long maxMillis, long maxNodes) {
+
+    /**
+     * Deepest iteration the search supports, which also bounds extensions
+     */
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("depth must be between 1 and " + MAX_DEPTH);
+        }
+        if (maxMillis <= 0 || maxNodes <= 0) {
+            throw new IllegalArgumentException("time and node budgets must be positive");
+        }
+    }
+
+    /**
+     * @return limits that search exactly to the given depth
+     */
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return limits that search as deep as possible within the given time
+     */
+    public static SearchLimits millis(long maxMillis) {
+        return new SearchLimits(MAX_DEPTH, maxMillis, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return limits that search as deep as possible within the given number
+     * of positions, which unlike time gives the same move on every machine
+     */
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, maxNodes);
+    }
+
+    /**
+     * @return these limits with a time budget added
+     */
+    public SearchLimits withMillis(long millis) {
+        return new SearchLimits(maxDepth, millis, maxNodes);
+    }
+
+    /**
+     * @return these limits with a node budget added
+     */
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(maxDepth, maxMillis, nodes);
+    }
+}
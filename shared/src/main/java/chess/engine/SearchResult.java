@@ -0,0 +1,15 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of a search
+ *
+ * @param bestMove the move to play, or null if the side to move has no legal move
+ * @param score    score of the position for the side to move, in centipawns;
+ *                 see {@link Searcher#isMateScore}
+ * @param depth    depth of the last fully searched iteration
+ * @param nodes    number of positions visited, including quiescence
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes) {
+}
@@ -0,0 +1,537 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.PieceSquareTable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterative deepening alpha-beta search.
+ * <p>
+ * Each iteration is a principal variation search with check extensions, null
+ * move pruning and a capture-only quiescence search at the leaves. Results
+ * are kept in a {@link TranspositionTable}, which cuts off positions already
+ * searched deeply enough. Moves are tried in the order: the table's best
+ * move, best move of the previous iteration, captures by most valuable victim
+ * and least valuable attacker, promotions, two killer moves per ply, then
+ * quiet moves by history score. Positions covered by a {@link Tablebase},
+ * if the searcher has one, are scored from the table without searching.
+ * <p>
+ * A searcher keeps its move buffers and ordering tables between searches, so
+ * it allocates almost nothing per search. It is not thread safe: give each
+ * thread its own searcher, sharing one table between them if they search
+ * related positions. Searches run on a copy of the game passed in.
+ */
+public final class Searcher {
+
+    /**
+     * Score of delivering checkmate now. Mates further away score less by
+     * one per ply, so the search prefers the fastest mate.
+     */
+    public static final int MATE = 30_000;
+
+    private static final int INFINITY = 32_000;
+    private static final int MAX_PLY = 128;
+
+    /**
+     * Longest mate a score can stand for: one found by search, or one read
+     * from a tablebase that far down the tree
+     */
+    private static final int MAX_MATE_PLIES = MAX_PLY + 256;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int CHECK_INTERVAL = 1023;
+    private static final int DEFAULT_TABLE_MEGABYTES = 4;
+
+    private static final int TABLE_MOVE = 4_000_000;
+    private static final int ROOT_BEST = 3_000_000;
+    private static final int CAPTURE = 2_000_000;
+    private static final int PROMOTION = 1_500_000;
+    private static final int KILLER = 1_000_000;
+
+    private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] scores = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[2][64 * 64];
+    private final long[] pathKeys = new long[MAX_PLY + 1];
+    private final TranspositionTable table;
+    private final Tablebase tablebase;
+    private final PieceSquareTable weights;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean canStop;
+    private boolean stopped;
+    private int rootBest;
+    private AtomicBoolean abort;
+
+    /**
+     * Creates a searcher with its own small transposition table
+     */
+    public Searcher() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Creates a searcher that uses the given table, which other searchers on
+     * other threads may be using at the same time
+     *
+     * @param table the transposition table to use
+     */
+    public Searcher(TranspositionTable table) {
+        this(table, null);
+    }
+
+    /**
+     * Creates a searcher that uses the given table and scores positions the
+     * tablebase covers from it
+     *
+     * @param table     the transposition table to use
+     * @param tablebase the endgame tables to probe, or null
+     */
+    public Searcher(TranspositionTable table, Tablebase tablebase) {
+        this(table, tablebase, null);
+    }
+
+    /**
+     * Creates a searcher that evaluates positions with the given weights
+     * instead of those of the board it is given
+     *
+     * @param table     the transposition table to use
+     * @param tablebase the endgame tables to probe, or null
+     * @param weights   the evaluation weights, or null to use the board's
+     */
+    public Searcher(TranspositionTable table, Tablebase tablebase, PieceSquareTable weights) {
+        this.table = table;
+        this.tablebase = tablebase;
+        this.weights = weights;
+    }
+
+    /**
+     * Finds the best move for the side to move
+     *
+     * @param position the game to search; it is not modified
+     * @param limits   when to stop searching
+     * @return the best move found with its score
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits) {
+        table.newSearch();
+        return search(position, limits, 1, null);
+    }
+
+    /**
+     * Finds the best move for the side to move, giving up as soon as
+     * {@code cancel} is set. A cancelled search may not have finished any
+     * iteration, so its result is only worth using if it was not cancelled.
+     *
+     * @param position the game to search; it is not modified
+     * @param limits   when to stop searching
+     * @param cancel   set from any thread to stop the search
+     * @return the best move found with its score
+     */
+    public SearchResult search(ChessGame position, SearchLimits limits, AtomicBoolean cancel) {
+        table.newSearch();
+        return search(position, limits, 1, cancel);
+    }
+
+    /**
+     * Searches as one of several threads sharing a table. The caller starts
+     * the table's new search once for all of them.
+     *
+     * @param firstDepth depth of the first iteration
+     * @param abort      stops the search when set, even before any iteration
+     *                   has finished; null if only the limits stop it
+     */
+    SearchResult search(ChessGame position, SearchLimits limits, int firstDepth, AtomicBoolean abort) {
+        game = new ChessGame(position);
+        board = game.getBoard();
+        if (weights != null && !weights.equals(board.getPieceSquareTable())) {
+            board.setPieceSquareTable(weights);
+        }
+        nodes = 0;
+        maxNodes = limits.maxNodes();
+        deadline = limits.maxMillis() == Long.MAX_VALUE
+                ? Long.MAX_VALUE : System.nanoTime() + limits.maxMillis() * 1_000_000;
+        canStop = false;
+        stopped = false;
+        rootBest = Move.NONE;
+        clearTables();
+
+        int count = MoveGenerator.legalMoves(board, game.getTeamTurn(), moves[0]);
+        if (count == 0) {
+            int score = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0);
+        }
+        this.abort = abort;
+
+        int bestMove = moves[0][0];
+        int bestScore = 0;
+        int completed = 0;
+        for (int depth = firstDepth; depth <= limits.maxDepth(); depth++) {
+            int score = searchRoot(depth);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBest;
+            bestScore = score;
+            completed = depth;
+            canStop = true;
+            if (isMateScore(score)) {
+                break;
+            }
+        }
+
+        game = null;
+        board = null;
+        this.abort = null;
+        return new SearchResult(Move.toChessMove(bestMove), bestScore, completed, nodes);
+    }
+
+    /**
+     * @return True if the score means a forced mate for either side
+     */
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) >= MATE - MAX_MATE_PLIES;
+    }
+
+    private void clearTables() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        for (int[] colorHistory : history) {
+            Arrays.fill(colorHistory, 0);
+        }
+    }
+
+    private int searchRoot(int depth) {
+        int[] rootMoves = moves[0];
+        int count = MoveGenerator.legalMoves(board, game.getTeamTurn(), rootMoves);
+        scoreMoves(0, count, Move.NONE);
+        pathKeys[0] = game.getZobristKey();
+
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        int best = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(0, i, count);
+            game.doMove(move);
+            pathKeys[1] = game.getZobristKey();
+            int score;
+            if (i == 0) {
+                score = -search(depth - 1, 1, -beta, -alpha, true);
+            } else {
+                score = -search(depth - 1, 1, -alpha - 1, -alpha, true);
+                if (score > alpha && !stopped) {
+                    score = -search(depth - 1, 1, -beta, -alpha, true);
+                }
+            }
+            game.undoMove();
+            if (stopped) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                best = move;
+            }
+        }
+        if (best != Move.NONE) {
+            rootBest = best;
+            if (!stopped) {
+                table.store(pathKeys[0], best, alpha, depth, TranspositionTable.EXACT);
+            }
+        }
+        return alpha;
+    }
+
+    private int search(int depth, int ply, int alpha, int beta, boolean allowNull) {
+        if (isRepetition(ply)) {
+            return 0;
+        }
+        ChessGame.TeamColor side = game.getTeamTurn();
+        if (tablebase != null) {
+            int value = tablebase.probeValue(board, side);
+            if (value != Tablebase.ILLEGAL) {
+                nodes++;
+                return tablebaseScore(value, ply);
+            }
+        }
+        boolean inCheck = game.isInCheck(side);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluation.evaluate(board, side);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long key = pathKeys[ply];
+        long entry = table.probe(key);
+        int tableMove = Move.NONE;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        if (allowNull && !pvNode && !inCheck && depth > NULL_MOVE_REDUCTION
+                && !isMateScore(beta) && Evaluation.hasPieces(board, side)) {
+            game.doNullMove();
+            pathKeys[ply + 1] = game.getZobristKey();
+            int score = -search(depth - 1 - NULL_MOVE_REDUCTION, ply + 1, -beta, -beta + 1, false);
+            game.undoNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+        }
+
+        int count = MoveGenerator.legalMoves(board, side, moves[ply]);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(ply, count, tableMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(ply, i, count);
+            game.doMove(move);
+            pathKeys[ply + 1] = game.getZobristKey();
+            int score;
+            if (i == 0) {
+                score = -search(depth - 1, ply + 1, -beta, -alpha, true);
+            } else {
+                score = -search(depth - 1, ply + 1, -alpha - 1, -alpha, true);
+                if (score > alpha && score < beta && !stopped) {
+                    score = -search(depth - 1, ply + 1, -beta, -alpha, true);
+                }
+            }
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (isQuiet(move)) {
+                            rememberCutoff(side, move, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    private int quiescence(int ply, int alpha, int beta) {
+        if (countNode()) {
+            return 0;
+        }
+        ChessGame.TeamColor side = game.getTeamTurn();
+        int standPat = Evaluation.evaluate(board, side);
+        if (ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        boolean inCheck = game.isInCheck(side);
+        if (!inCheck) {
+            if (standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+        }
+
+        int count = MoveGenerator.legalMoves(board, side, moves[ply]);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(ply, count, Move.NONE);
+
+        int best = inCheck ? -INFINITY : standPat;
+        for (int i = 0; i < count; i++) {
+            int move = pickMove(ply, i, count);
+            if (!inCheck && isQuiet(move)) {
+                // Moves are picked best first, so only quiet moves are left
+                break;
+            }
+            game.doMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a node and checks the budgets. Time is only read every so many
+     * nodes, since reading the clock costs more than visiting a node.
+     *
+     * @return True if the search has to stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if (canStop && (nodes >= maxNodes
+                || ((nodes & CHECK_INTERVAL) == 0 && System.nanoTime() >= deadline))) {
+            stopped = true;
+        }
+        if (abort != null && (nodes & CHECK_INTERVAL) == 0 && abort.get()) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * @return True if the position at this ply already occurred on the path
+     * from the root with the same side to move, which scores as a draw
+     */
+    private boolean isRepetition(int ply) {
+        long key = pathKeys[ply];
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (pathKeys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts a tablebase value to a score: a mate that many plies beyond
+     * this one, or a draw
+     */
+    private static int tablebaseScore(int value, int ply) {
+        if (value == Tablebase.DRAW) {
+            return 0;
+        }
+        int distance = value - 2;
+        return (distance & 1) == 1 ? MATE - ply - distance : -MATE + ply + distance;
+    }
+
+    /**
+     * Mate scores count plies from the root, but a table entry can be reached
+     * at any ply, so they are stored counting from the entry's position
+     */
+    private static int toTable(int score, int ply) {
+        if (isMateScore(score)) {
+            return score > 0 ? score + ply : score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (isMateScore(score)) {
+            return score > 0 ? score - ply : score + ply;
+        }
+        return score;
+    }
+
+    private void scoreMoves(int ply, int count, int tableMove) {
+        int[] plyMoves = moves[ply];
+        int[] plyScores = scores[ply];
+        int[] colorHistory = history[game.getTeamTurn().ordinal()];
+        int[] plyKillers = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            ChessPiece victim = board.getPieceAt(Move.to(move));
+            ChessPiece.PieceType promotion = Move.promotion(move);
+            int score;
+            if (move == tableMove) {
+                score = TABLE_MOVE;
+            } else if (ply == 0 && move == rootBest) {
+                score = ROOT_BEST;
+            } else if (victim != null) {
+                ChessPiece attacker = board.getPieceAt(Move.from(move));
+                score = CAPTURE + Evaluation.value(victim.getPieceType()) * 8
+                        - Evaluation.value(attacker.getPieceType()) / 100;
+            } else if (promotion != null) {
+                score = PROMOTION + Evaluation.value(promotion);
+            } else if (move == plyKillers[0]) {
+                score = KILLER + 1;
+            } else if (move == plyKillers[1]) {
+                score = KILLER;
+            } else {
+                score = colorHistory[move & 0xFFF];
+            }
+            plyScores[i] = score;
+        }
+    }
+
+    /**
+     * Selection sort one step at a time: moves the best remaining move to
+     * index {@code i}, which is cheap when a cutoff comes early
+     */
+    private int pickMove(int ply, int i, int count) {
+        int[] plyMoves = moves[ply];
+        int[] plyScores = scores[ply];
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (plyScores[j] > plyScores[best]) {
+                best = j;
+            }
+        }
+        int move = plyMoves[best];
+        plyMoves[best] = plyMoves[i];
+        plyMoves[i] = move;
+        int score = plyScores[best];
+        plyScores[best] = plyScores[i];
+        plyScores[i] = score;
+        return move;
+    }
+
+    private boolean isQuiet(int move) {
+        return board.getPieceAt(Move.to(move)) == null && Move.promotion(move) == null;
+    }
+
+    private void rememberCutoff(ChessGame.TeamColor side, int move, int ply, int depth) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] colorHistory = history[side.ordinal()];
+        int index = move & 0xFFF;
+        colorHistory[index] = Math.min(colorHistory[index] + depth * depth, KILLER - 1);
+    }
+}
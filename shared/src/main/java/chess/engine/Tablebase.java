@@ -0,0 +1,269 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exact results for positions with few pieces, read from memory-mapped
+ * endgame tables.
+ * <p>
+ * There is one file per material balance, named after it with the stronger
+ * side as white, for example {@code KQvK.dtm} or {@code KRvKN.dtm}. Positions
+ * where black is stronger are looked up with the board mirrored and the
+ * colors swapped. A file holds one byte per arrangement of its pieces and side
+ * to move: 0 for an arrangement that cannot occur, 1 for a draw, otherwise 2
+ * plus the number of plies until mate with best play. An even number of plies
+ * means the side to move is mated, an odd number that it mates. Files are
+ * written by {@link TablebaseGenerator}.
+ * <p>
+ * A file is only opened and mapped the first time a position needing it is
+ * probed, so a directory of tables costs nothing until an endgame reaches
+ * it, and the pages are shared with every other thread and process reading
+ * the same file. Instances are thread safe.
+ */
+public final class Tablebase {
+
+    /**
+     * Most pieces, kings included, a table can hold. One more piece would
+     * make a file larger than a single mapping allows.
+     */
+    public static final int MAX_PIECES = 4;
+
+    static final int ILLEGAL = 0;
+    static final int DRAW = 1;
+
+    /**
+     * Piece types in the order they appear in table names and indexes
+     */
+    static final ChessPiece.PieceType[] ORDER = {
+            ChessPiece.PieceType.KING, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.PAWN
+    };
+    static final String LETTERS = "KQRBNP";
+
+    private static final String EXTENSION = ".dtm";
+    private static final int COUNT_BITS = 3;
+    private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, Optional<ByteBuffer>> tables = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory the directory holding the table files; it need not
+     *                  exist, in which case every probe misses
+     */
+    public Tablebase(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * The result of a position with best play
+     */
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    /**
+     * @param outcome  the result for the side to move
+     * @param distance plies until mate, or 0 for a draw
+     */
+    public record Probe(Outcome outcome, int distance) {
+    }
+
+    /**
+     * Looks up the result of a position
+     *
+     * @param game the position
+     * @return the result for the side to move, or null if no table covers the
+     * position
+     */
+    public Probe probe(ChessGame game) {
+        int value = probeValue(game.getBoard(), game.getTeamTurn());
+        if (value == ILLEGAL) {
+            return null;
+        }
+        if (value == DRAW) {
+            return new Probe(Outcome.DRAW, 0);
+        }
+        int distance = value - 2;
+        return new Probe((distance & 1) == 1 ? Outcome.WIN : Outcome.LOSS, distance);
+    }
+
+    /**
+     * Looks up a position's raw table value
+     *
+     * @return the value as stored in the table, or {@link #ILLEGAL} if no table
+     * covers the position
+     */
+    int probeValue(ChessBoard board, ChessGame.TeamColor turn) {
+        // Nearly every position searched has too many pieces, so rule those out first
+        int count = board.getPieceCount();
+        if (count > MAX_PIECES) {
+            return ILLEGAL;
+        }
+        int white = material(board, ChessGame.TeamColor.WHITE);
+        int black = material(board, ChessGame.TeamColor.BLACK);
+        if (count(white, 0) != 1 || count(black, 0) != 1) {
+            return ILLEGAL;
+        }
+        if (count == 2) {
+            return DRAW;
+        }
+
+        boolean flip = compare(black, white) > 0;
+        ByteBuffer table = table(flip ? signature(black, white) : signature(white, black));
+        if (table == null) {
+            return ILLEGAL;
+        }
+        return table.get(index(board, turn, flip)) & 0xFF;
+    }
+
+    private ByteBuffer table(String signature) {
+        return tables.computeIfAbsent(signature, this::map).orElse(null);
+    }
+
+    /**
+     * Maps a table file, or finds that it is missing, which is remembered so
+     * positions without a table are not looked up on disk again
+     */
+    private Optional<ByteBuffer> map(String signature) {
+        Path file = file(directory, signature);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != size(pieceCount(signature))) {
+                return Optional.empty();
+            }
+            return Optional.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Computes a position's place in its table: the squares of the stronger
+     * side's pieces then the weaker side's, each in {@link #ORDER} and the
+     * squares of like pieces in ascending order, as digits base 64, then the
+     * side to move. With {@code flip} the board is read mirrored top to bottom
+     * with the colors swapped.
+     */
+    static int index(ChessBoard board, ChessGame.TeamColor turn, boolean flip) {
+        ChessGame.TeamColor strong = flip ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        ChessGame.TeamColor weak = flip ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        int index = appendSquares(0, board, strong, flip);
+        index = appendSquares(index, board, weak, flip);
+        return index * 2 + (turn == strong ? 0 : 1);
+    }
+
+    private static int appendSquares(int index, ChessBoard board, ChessGame.TeamColor color, boolean flip) {
+        for (ChessPiece.PieceType type : ORDER) {
+            long squares = board.getPieces(color, type);
+            if (flip) {
+                // Reversing the bytes reverses the rows, keeping like pieces in ascending order
+                squares = Long.reverseBytes(squares);
+            }
+            for (; squares != 0; squares &= squares - 1) {
+                index = index * 64 + Long.numberOfTrailingZeros(squares);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return the table name for a material balance, such as {@code KRvKN}
+     */
+    static String signature(int[] strong, int[] weak) {
+        return signature(material(strong), material(weak));
+    }
+
+    private static String signature(int strong, int weak) {
+        StringBuilder name = new StringBuilder(MAX_PIECES + 1);
+        appendPieces(name, strong);
+        name.append('v');
+        appendPieces(name, weak);
+        return name.toString();
+    }
+
+    /**
+     * Orders material balances: more pieces first, then more of the pieces
+     * earlier in {@link #ORDER}
+     */
+    static int compare(int[] a, int[] b) {
+        return compare(material(a), material(b));
+    }
+
+    private static int compare(int a, int b) {
+        int result = Integer.compare(sum(a), sum(b));
+        // With the counts as fixed-width digits, earliest type most significant
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    static int pieceCount(String signature) {
+        return signature.length() - 1;
+    }
+
+    /**
+     * @return the number of entries in a table of this many pieces
+     */
+    static int size(int pieces) {
+        return 2 << (6 * pieces);
+    }
+
+    static Path file(Path directory, String signature) {
+        return directory.resolve(signature + EXTENSION);
+    }
+
+    /**
+     * Packs one side's piece counts into an int, {@value #COUNT_BITS} bits
+     * per type in {@link #ORDER} with the first type in the highest bits,
+     * so probing needs no arrays
+     */
+    private static int material(ChessBoard board, ChessGame.TeamColor color) {
+        int material = 0;
+        for (ChessPiece.PieceType type : ORDER) {
+            material = (material << COUNT_BITS) | Long.bitCount(board.getPieces(color, type));
+        }
+        return material;
+    }
+
+    private static int material(int[] counts) {
+        int material = 0;
+        for (int count : counts) {
+            material = (material << COUNT_BITS) | count;
+        }
+        return material;
+    }
+
+    private static int count(int material, int type) {
+        return (material >>> (COUNT_BITS * (ORDER.length - 1 - type))) & COUNT_MASK;
+    }
+
+    private static void appendPieces(StringBuilder name, int material) {
+        for (int i = 0; i < ORDER.length; i++) {
+            for (int j = count(material, i); j > 0; j--) {
+                name.append(LETTERS.charAt(i));
+            }
+        }
+    }
+
+    private static int sum(int material) {
+        int sum = 0;
+        for (int i = 0; i < ORDER.length; i++) {
+            sum += count(material, i);
+        }
+        return sum;
+    }
+}
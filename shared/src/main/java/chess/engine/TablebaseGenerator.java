@@ -0,0 +1,314 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the endgame tables {@link Tablebase} reads, by retrograde analysis.
+ * <p>
+ * Every arrangement of the table's pieces is first marked as checkmate,
+ * stalemate or unknown. Then pass {@code n} finds the positions that are
+ * decided in {@code n} plies: on odd passes those with a move to a position
+ * lost in {@code n - 1} plies, on even passes those where every move reaches a
+ * position won in fewer than {@code n} plies. Moves that capture or promote
+ * leave the table and are looked up in the smaller tables, which are
+ * generated first. Positions still unknown when no further pass can decide
+ * anything are draws.
+ * <p>
+ * Usage: {@code TablebaseGenerator <directory> <table>...}, for example
+ * {@code TablebaseGenerator tables KQvK KRvK KPvK}.
+ */
+public final class TablebaseGenerator {
+
+    private static final int UNKNOWN = 0xFF;
+    private static final int MAX_DISTANCE = UNKNOWN - 3;
+
+    private final Path directory;
+    private final String signature;
+    private final ChessGame.TeamColor[] colors;
+    private final ChessPiece.PieceType[] types;
+    private final int[] squares;
+    private final ChessBoard board = new ChessBoard();
+    private final ChessGame game = new ChessGame();
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private byte[] values;
+    private Tablebase smaller;
+
+    private TablebaseGenerator(Path directory, String signature, int[] white, int[] black) {
+        this.directory = directory;
+        this.signature = signature;
+        int pieces = Tablebase.pieceCount(signature);
+        colors = new ChessGame.TeamColor[pieces];
+        types = new ChessPiece.PieceType[pieces];
+        squares = new int[pieces];
+        int piece = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int[] counts = color == ChessGame.TeamColor.WHITE ? white : black;
+            for (int i = 0; i < counts.length; i++) {
+                for (int j = 0; j < counts[i]; j++) {
+                    colors[piece] = color;
+                    types[piece++] = Tablebase.ORDER[i];
+                }
+            }
+        }
+        game.setBoard(board);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: TablebaseGenerator <directory> <table>...");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        for (int i = 1; i < args.length; i++) {
+            generate(directory, args[i]);
+        }
+    }
+
+    /**
+     * Writes a table, and any smaller tables it depends on that are missing
+     * from the directory
+     *
+     * @param directory where to write the table files
+     * @param signature the material of the table, stronger side first, such as
+     *                  {@code KRvKN}
+     * @throws IOException if a table cannot be written
+     */
+    public static void generate(Path directory, String signature) throws IOException {
+        int separator = signature.indexOf('v');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Table names look like KQvK: " + signature);
+        }
+        int[] white = counts(signature.substring(0, separator));
+        int[] black = counts(signature.substring(separator + 1));
+        if (white[0] != 1 || black[0] != 1) {
+            throw new IllegalArgumentException("Each side needs exactly one king: " + signature);
+        }
+        if (Tablebase.pieceCount(signature) > Tablebase.MAX_PIECES) {
+            throw new IllegalArgumentException("Tables hold at most " + Tablebase.MAX_PIECES + " pieces");
+        }
+        if (Tablebase.compare(white, black) < 0 || !signature.equals(Tablebase.signature(white, black))) {
+            throw new IllegalArgumentException("Name the stronger side first, pieces in the order "
+                    + Tablebase.LETTERS + ": " + signature);
+        }
+
+        Files.createDirectories(directory);
+        List<String> children = children(white, black);
+        for (String child : children) {
+            if (!Files.isRegularFile(Tablebase.file(directory, child))) {
+                generate(directory, child);
+            }
+        }
+        new TablebaseGenerator(directory, signature, white, black).run(children);
+    }
+
+    private void run(List<String> children) throws IOException {
+        smaller = new Tablebase(directory);
+        values = new byte[Tablebase.size(squares.length)];
+
+        int lastDecided = 0;
+        for (String child : children) {
+            lastDecided = Math.max(lastDecided, longestMate(Tablebase.file(directory, child)));
+        }
+        markTerminalPositions();
+        for (int distance = 1; distance <= lastDecided + 2; distance++) {
+            if (distance > MAX_DISTANCE) {
+                throw new IllegalStateException(signature + " has mates too long to store");
+            }
+            if (decide(distance)) {
+                lastDecided = distance;
+            }
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if ((values[i] & 0xFF) == UNKNOWN) {
+                values[i] = Tablebase.DRAW;
+            }
+        }
+        Files.write(Tablebase.file(directory, signature), values);
+    }
+
+    /**
+     * Marks checkmates and stalemates, and every other possible position as
+     * unknown
+     */
+    private void markTerminalPositions() {
+        for (int index = 0; index < values.length; index++) {
+            if (!setUp(index)) {
+                continue;
+            }
+            ChessGame.TeamColor turn = game.getTeamTurn();
+            if (MoveGenerator.legalMoves(board, turn, moves) > 0) {
+                values[index] = (byte) UNKNOWN;
+            } else {
+                values[index] = (byte) (game.isInCheck(turn) ? 2 : Tablebase.DRAW);
+            }
+        }
+    }
+
+    /**
+     * Runs one pass, finding the positions decided in exactly
+     * {@code distance} plies
+     *
+     * @return True if any position was decided
+     */
+    private boolean decide(int distance) {
+        boolean win = (distance & 1) == 1;
+        boolean decided = false;
+        for (int index = 0; index < values.length; index++) {
+            if ((values[index] & 0xFF) != UNKNOWN) {
+                continue;
+            }
+            setUp(index);
+            int count = MoveGenerator.legalMoves(board, game.getTeamTurn(), moves);
+            boolean found = !win;
+            for (int i = 0; i < count; i++) {
+                int child = valueAfter(moves[i]);
+                if (win && child == distance + 1) {
+                    found = true;
+                    break;
+                }
+                // Positions decided earlier in this pass are worth distance + 2, so they fail this
+                if (!win && ((child & 1) == 0 || child < 3 || child >= distance + 2)) {
+                    found = false;
+                    break;
+                }
+            }
+            if (found) {
+                values[index] = (byte) (distance + 2);
+                decided = true;
+            }
+        }
+        return decided;
+    }
+
+    /**
+     * @return the table value of the position after a move
+     */
+    private int valueAfter(int move) {
+        boolean leavesTable = board.getPieceAt(Move.to(move)) != null || Move.promotion(move) != null;
+        game.doMove(move);
+        int value = leavesTable
+                ? smaller.probeValue(board, game.getTeamTurn())
+                : values[Tablebase.index(board, game.getTeamTurn(), false)] & 0xFF;
+        game.undoMove();
+        return value;
+    }
+
+    /**
+     * Sets the board up as the position with the given index
+     *
+     * @return True if it is a position that can occur, with its pieces listed
+     * in index order
+     */
+    private boolean setUp(int index) {
+        for (int square : squares) {
+            board.addPiece(position(square), null);
+        }
+        ChessGame.TeamColor turn = (index & 1) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        int rest = index >>> 1;
+        for (int piece = squares.length - 1; piece >= 0; piece--) {
+            squares[piece] = rest & 63;
+            rest >>>= 6;
+        }
+
+        long occupied = 0;
+        for (int piece = 0; piece < squares.length; piece++) {
+            long bit = 1L << squares[piece];
+            int row = squares[piece] / 8;
+            if ((occupied & bit) != 0 || (types[piece] == ChessPiece.PieceType.PAWN && (row == 0 || row == 7))) {
+                return false;
+            }
+            occupied |= bit;
+            board.addPiece(position(squares[piece]), ChessPiece.of(colors[piece], types[piece]));
+        }
+        game.setTeamTurn(turn);
+
+        ChessGame.TeamColor waiting = turn == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        // Like pieces in the wrong order are the same position as another index
+        return Tablebase.index(board, turn, false) == index && !game.isInCheck(waiting);
+    }
+
+    /**
+     * @return the longest mate stored in a table file
+     */
+    private static int longestMate(Path file) throws IOException {
+        int longest = 0;
+        for (byte value : Files.readAllBytes(file)) {
+            longest = Math.max(longest, (value & 0xFF) - 2);
+        }
+        return longest;
+    }
+
+    /**
+     * @return the tables reached by one capture or promotion
+     */
+    private static List<String> children(int[] white, int[] black) {
+        List<String> children = new ArrayList<>();
+        int pawn = Tablebase.ORDER.length - 1;
+        for (int[] side : new int[][]{white, black}) {
+            for (int i = 1; i < side.length; i++) {
+                if (side[i] == 0) {
+                    continue;
+                }
+                side[i]--;
+                addChild(children, white, black);
+                if (i == pawn) {
+                    for (int promotion = 1; promotion < pawn; promotion++) {
+                        side[promotion]++;
+                        addChild(children, white, black);
+                        side[promotion]--;
+                    }
+                }
+                side[i]++;
+            }
+        }
+        return children;
+    }
+
+    private static void addChild(List<String> children, int[] white, int[] black) {
+        if (sum(white) + sum(black) == 2) {
+            return;
+        }
+        String child = Tablebase.compare(white, black) >= 0
+                ? Tablebase.signature(white, black) : Tablebase.signature(black, white);
+        if (!children.contains(child)) {
+            children.add(child);
+        }
+    }
+
+    private static int[] counts(String pieces) {
+        int[] counts = new int[Tablebase.ORDER.length];
+        for (int i = 0; i < pieces.length(); i++) {
+            int type = Tablebase.LETTERS.indexOf(pieces.charAt(i));
+            if (type < 0) {
+                throw new IllegalArgumentException("Unknown piece " + pieces.charAt(i));
+            }
+            counts[type]++;
+        }
+        return counts;
+    }
+
+    private static int sum(int[] counts) {
+        int sum = 0;
+        for (int count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    private static ChessPosition position(int square) {
+        return ChessPosition.of(square / 8 + 1, square % 8 + 1);
+    }
+}
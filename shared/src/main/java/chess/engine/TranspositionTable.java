@@ -0,0 +1,172 @@
+package chess.engine;
+
+import chess.Move;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size hash table of search results keyed by position key, which
+ * can be shared by any number of search threads without locking.
+ * <p>
+ * Each entry is two {@code long}s in one primitive array, so even a table of
+ * several gigabytes is a single object the garbage collector never has to
+ * walk. The first long is the position key XORed with the second, which packs
+ * the result. A reader recomputes the XOR and treats a mismatch as a miss, so
+ * an entry half overwritten by another thread is never used: this costs an
+ * occasional lost entry instead of a lock on every probe.
+ * <p>
+ * A result packs the best move in bits 0-14 (see {@link Move}), the score
+ * offset by 2<sup>15</sup> in bits 15-30, the search depth in bits 31-38, the
+ * {@link #EXACT}, {@link #LOWER} or {@link #UPPER} bound in bits 39-40 and
+ * the search generation in bits 41-48. A stored result is never zero, so
+ * zero means "not found".
+ */
+public final class TranspositionTable {
+
+    /**
+     * The score is the exact value of the position
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * The score is a lower bound: the search failed high
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * The score is an upper bound: no move reached alpha
+     */
+    public static final int UPPER = 3;
+
+    /**
+     * Largest supported size; one more doubling would overflow an array
+     */
+    public static final int MAX_MEGABYTES = 8192;
+
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private static final int MOVE_MASK = 0x7FFF;
+    private static final int SCORE_SHIFT = 15;
+    private static final int SCORE_OFFSET = 1 << 15;
+    private static final int DEPTH_SHIFT = 31;
+    private static final int BOUND_SHIFT = 39;
+    private static final int GENERATION_SHIFT = 41;
+    private static final int BYTE_MASK = 0xFF;
+
+    private final long[] entries;
+    private final int indexMask;
+    private volatile int generation;
+
+    /**
+     * Creates a table using up to the given amount of memory. The number of
+     * entries is rounded down to a power of two.
+     *
+     * @param megabytes table size, 1 to {@link #MAX_MEGABYTES}
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("table size must be between 1 and " + MAX_MEGABYTES + " MB");
+        }
+        long size = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY);
+        entries = new long[(int) (size * 2)];
+        indexMask = (int) size - 1;
+    }
+
+    /**
+     * @return the number of entries the table holds
+     */
+    public int capacity() {
+        return indexMask + 1;
+    }
+
+    /**
+     * Marks the start of a new search, so results from earlier searches are
+     * replaced before results from this one
+     */
+    public void newSearch() {
+        generation = (generation + 1) & BYTE_MASK;
+    }
+
+    /**
+     * Removes every entry. Not safe while searches are using the table.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0L);
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param key the position's Zobrist key
+     * @return the packed result, or 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        int index = index(key);
+        long check = entries[index];
+        long data = entries[index + 1];
+        return (check ^ data) == key ? data : 0L;
+    }
+
+    /**
+     * Stores a search result, replacing the current entry in the slot if it is
+     * from an earlier search, from a shallower search, or for the same
+     * position
+     *
+     * @param key   the position's Zobrist key
+     * @param move  the best move found, or {@link Move#NONE}
+     * @param score the score, which must fit in 16 bits
+     * @param depth the remaining depth searched, 0-255
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = index(key);
+        long current = entries[index + 1];
+        if (current != 0 && (entries[index] ^ current) != key
+                && generation(current) == generation && depth(current) > depth) {
+            return;
+        }
+        long data = (move & MOVE_MASK)
+                | (long) (score + SCORE_OFFSET) << SCORE_SHIFT
+                | (long) depth << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) generation << GENERATION_SHIFT;
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+    }
+
+    /**
+     * @return the best move of a packed result, or {@link Move#NONE}
+     */
+    public static int move(long data) {
+        return (int) data & MOVE_MASK;
+    }
+
+    /**
+     * @return the score of a packed result
+     */
+    public static int score(long data) {
+        return (int) (data >>> SCORE_SHIFT & 0xFFFF) - SCORE_OFFSET;
+    }
+
+    /**
+     * @return the depth of a packed result
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & BYTE_MASK;
+    }
+
+    /**
+     * @return the bound type of a packed result
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & BYTE_MASK;
+    }
+
+    private int index(long key) {
+        return ((int) key & indexMask) << 1;
+    }
+}
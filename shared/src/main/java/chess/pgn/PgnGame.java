@@ -0,0 +1,25 @@
+package chess.pgn;
+
+import chess.ChessGame;
+
+import java.util.Map;
+
+/**
+ * One game read from a PGN file
+ *
+ * @param tags   the tag pairs, such as {@code White} and {@code Event}, in
+ *               file order
+ * @param game   the game after replaying its moves, which can be taken back
+ *               one at a time with {@link ChessGame#undoMove}
+ * @param result the game termination marker: {@code 1-0}, {@code 0-1},
+ *               {@code 1/2-1/2} or {@code *}
+ */
+public record PgnGame(Map<String, String> tags, ChessGame game, String result) {
+
+    /**
+     * @return the value of a tag, or null if the game does not have it
+     */
+    public String tag(String name) {
+        return tags.get(name);
+    }
+}
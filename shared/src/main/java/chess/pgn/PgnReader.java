@@ -0,0 +1,297 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.MoveGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads games one at a time from a PGN file, however large.
+ * <p>
+ * The reader works through a fixed size buffer of bytes and replays each
+ * move as soon as it is read, so memory use does not grow with the file and
+ * a game's move text is never held as a whole. Comments, variations,
+ * numeric annotations and move numbers are skipped. A game starts from the
+ * position in its {@code FEN} tag if it has one.
+ * <p>
+ * A game whose moves cannot be played is read to its end before
+ * {@link #next} reports it, so the following call carries on with the next
+ * game. Not thread safe; to read several files at once use one reader per
+ * file.
+ */
+public final class PgnReader implements Closeable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int NONE = -2;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final byte[] bytes = buffer.array();
+    private final StringBuilder token = new StringBuilder(16);
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private byte[] text = new byte[64];
+    private int position;
+    private int limit;
+    private int pushedBack = NONE;
+
+    /**
+     * @param in the PGN text; closed when the reader is closed
+     */
+    public PgnReader(InputStream in) {
+        this(Channels.newChannel(in));
+    }
+
+    /**
+     * @param channel the PGN text; closed when the reader is closed
+     */
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return the game, or null at the end of the input
+     * @throws IOException          if the input cannot be read
+     * @throws InvalidMoveException if one of the game's moves cannot be
+     *                              played, or its {@code FEN} tag is
+     *                              malformed; the game is skipped
+     */
+    public PgnGame next() throws IOException, InvalidMoveException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        ChessGame game = null;
+        String error = null;
+        String result = "*";
+        boolean started = false;
+        boolean inMoves = false;
+
+        for (int c = read(); c != -1; c = read()) {
+            if (c <= ' ') {
+                continue;
+            }
+            started = true;
+            if (c == '[') {
+                if (inMoves) {
+                    // A game without a termination marker ends where the next one's tags start
+                    pushedBack = c;
+                    break;
+                }
+                readTag(tags);
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == ';' || c == '%') {
+                skipPast('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == ')' || c == '}' || c == ']') {
+                continue;
+            } else {
+                readToken(c);
+                if (isResult(token)) {
+                    result = token.toString();
+                    break;
+                }
+                if (c == '$' || isMoveNumber(token)) {
+                    continue;
+                }
+                inMoves = true;
+                if (game == null) {
+                    try {
+                        game = startingPosition(tags);
+                    } catch (IllegalArgumentException e) {
+                        game = new ChessGame();
+                        error = e.getMessage();
+                    }
+                }
+                if (error == null) {
+                    try {
+                        // "12...Nf6" and "...Nf6" carry their move number or dots
+                        token.delete(0, moveNumberLength(token));
+                        game.doMove(San.parse(game, token, moves));
+                    } catch (InvalidMoveException e) {
+                        error = e.getMessage();
+                    }
+                }
+            }
+        }
+
+        if (!started) {
+            return null;
+        }
+        if (error != null) {
+            throw new InvalidMoveException(error + " in game " + tags.getOrDefault("White", "?")
+                    + " - " + tags.getOrDefault("Black", "?"));
+        }
+        if (game == null) {
+            try {
+                game = startingPosition(tags);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidMoveException(e.getMessage());
+            }
+        }
+        return new PgnGame(tags, game, result);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ChessGame startingPosition(Map<String, String> tags) {
+        String fen = tags.get("FEN");
+        return fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+    }
+
+    /**
+     * Reads a tag pair after its opening bracket: a name, then a quoted
+     * value in which backslash escapes quotes and backslashes
+     */
+    private void readTag(Map<String, String> tags) throws IOException {
+        int c = read();
+        while (c != -1 && c <= ' ') {
+            c = read();
+        }
+        token.setLength(0);
+        while (c > ' ' && c != '"' && c != ']') {
+            token.append((char) c);
+            c = read();
+        }
+        String name = token.toString();
+        while (c != -1 && c != '"' && c != ']') {
+            c = read();
+        }
+        if (c != '"') {
+            return;
+        }
+
+        int length = 0;
+        for (c = read(); c != -1 && c != '"'; c = read()) {
+            if (c == '\\') {
+                c = read();
+            }
+            if (length == text.length) {
+                text = Arrays.copyOf(text, length * 2);
+            }
+            text[length++] = (byte) c;
+        }
+        tags.put(name, new String(text, 0, length, StandardCharsets.UTF_8));
+        if (c != -1) {
+            skipPast(']');
+        }
+    }
+
+    /**
+     * Reads a move, move number, annotation or result into {@link #token}
+     */
+    private void readToken(int first) throws IOException {
+        token.setLength(0);
+        token.append((char) first);
+        for (int c = read(); c != -1; c = read()) {
+            if (c <= ' ' || c == '{' || c == '(' || c == ')' || c == '[' || c == ';' || c == '$') {
+                pushedBack = c;
+                return;
+            }
+            token.append((char) c);
+            if (c == '.' && Character.isDigit(first)) {
+                // "12.e4" without a space is a move number then a move
+                int next = read();
+                if (next != '.') {
+                    pushedBack = next;
+                    return;
+                }
+                token.append('.');
+            }
+        }
+    }
+
+    private void skipPast(int end) throws IOException {
+        int c = read();
+        while (c != -1 && c != end) {
+            c = read();
+        }
+    }
+
+    /**
+     * Skips a variation after its opening parenthesis, including nested
+     * variations and comments inside it
+     */
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        for (int c = read(); c != -1 && depth > 0; c = read()) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return;
+                }
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == ';') {
+                skipPast('\n');
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (position == limit) {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            if (read < 0) {
+                return -1;
+            }
+            position = 0;
+            limit = read;
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    private static boolean isResult(CharSequence token) {
+        return "1-0".contentEquals(token) || "0-1".contentEquals(token)
+                || "1/2-1/2".contentEquals(token) || "*".contentEquals(token);
+    }
+
+    /**
+     * @return the length of a move number, such as {@code 12.} or
+     * {@code 12...}, at the start of a token, or 0 if it has none
+     */
+    private static int moveNumberLength(CharSequence token) {
+        int digits = 0;
+        while (digits < token.length() && Character.isDigit(token.charAt(digits))) {
+            digits++;
+        }
+        int end = digits;
+        while (end < token.length() && token.charAt(end) == '.') {
+            end++;
+        }
+        return end > digits ? end : 0;
+    }
+
+    private static boolean isMoveNumber(CharSequence token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c != '.' && !Character.isDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,180 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveGenerator;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Writes games as PGN, one after another, to a character stream.
+ * <p>
+ * Each game is written as soon as it is given, a line at a time, so a
+ * writer over a network response can send any number of games while only
+ * holding the one being written. A game's moves are the ones it can take
+ * back with {@link ChessGame#undoMove}, and it starts from the position
+ * before the first of them, given in a {@code FEN} tag when it is not the
+ * standard start. The seven tags PGN requires are always written, with
+ * {@code ?} for ones that are not known.
+ * <p>
+ * Not thread safe.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+
+    private static final int LINE_LENGTH = 80;
+    private static final String START_FEN = new ChessGame().toFen();
+    private static final String[] REQUIRED_TAGS = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 16);
+    private final StringBuilder san = new StringBuilder(8);
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private int[] path = new int[64];
+
+    /**
+     * @param out where the games are written; buffer it for speed, since
+     *            tags and move text are written in small pieces. It is closed
+     *            when the writer is closed.
+     */
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes a game read from PGN, with its tags and result
+     *
+     * @param game the game
+     * @throws IOException if the game cannot be written
+     */
+    public void write(PgnGame game) throws IOException {
+        write(game.tags(), game.game(), game.result());
+    }
+
+    /**
+     * Writes a game with its result worked out from the final position
+     *
+     * @param tags tag pairs, such as {@code White} and {@code Event}, written
+     *             after the required ones
+     * @param game the game; it is left unchanged
+     * @throws IOException if the game cannot be written
+     */
+    public void write(Map<String, String> tags, ChessGame game) throws IOException {
+        write(tags, game, result(game));
+    }
+
+    /**
+     * @return {@code 1-0} or {@code 0-1} if the game ended in checkmate,
+     * {@code 1/2-1/2} if it ended in stalemate, or {@code *} if it can go on
+     */
+    public static String result(ChessGame game) {
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        return switch (game.getGameStatus(turn)) {
+            case CHECKMATE -> turn == ChessGame.TeamColor.WHITE ? "0-1" : "1-0";
+            case STALEMATE -> "1/2-1/2";
+            default -> "*";
+        };
+    }
+
+    private void write(Map<String, String> tags, ChessGame game, String result) throws IOException {
+        // Take the moves back on a copy to find the start and the moves in order
+        ChessGame replay = new ChessGame(game);
+        int count = 0;
+        while (replay.canUndoMove()) {
+            if (count == path.length) {
+                path = Arrays.copyOf(path, count * 2);
+            }
+            path[count++] = Move.encode(replay.undoMove());
+        }
+
+        for (String name : REQUIRED_TAGS) {
+            String value = name.equals("Result") ? result : tags.get(name);
+            writeTag(name, value == null || value.isEmpty() ? (name.equals("Date") ? "????.??.??" : "?") : value);
+        }
+        String fen = replay.toFen();
+        boolean setUp = !fen.equals(START_FEN);
+        if (setUp) {
+            writeTag("SetUp", "1");
+            writeTag("FEN", fen);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            String name = tag.getKey();
+            boolean replaced = setUp && (name.equals("SetUp") || name.equals("FEN"));
+            if (tag.getValue() != null && !isRequired(name) && !replaced) {
+                writeTag(name, tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        // Move text, numbering each white move and a first move by black
+        int moveNumber = 1;
+        for (int i = count - 1; i >= 0; i--) {
+            san.setLength(0);
+            boolean white = replay.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            if (white || i == count - 1) {
+                san.append(moveNumber).append(white ? ". " : "... ");
+            }
+            San.play(replay, path[i], moves, san);
+            if (!white) {
+                moveNumber++;
+            }
+            appendWord(san);
+        }
+        appendWord(result);
+        out.append(line).write("\n\n");
+        line.setLength(0);
+    }
+
+    /**
+     * Adds a word to the move text, starting a new line first if it would
+     * not fit
+     */
+    private void appendWord(CharSequence word) throws IOException {
+        if (!line.isEmpty()) {
+            if (line.length() + 1 + word.length() > LINE_LENGTH) {
+                out.append(line).write('\n');
+                line.setLength(0);
+            } else {
+                line.append(' ');
+            }
+        }
+        line.append(word);
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        out.write("\"]\n");
+    }
+
+    private static boolean isRequired(String name) {
+        for (String required : REQUIRED_TAGS) {
+            if (required.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,244 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.MoveGenerator;
+
+/**
+ * Standard algebraic notation, the move format of PGN: {@code e4},
+ * {@code Nbd7}, {@code exd5}, {@code R1e2}, {@code e8=Q+}.
+ * <p>
+ * A SAN move only names the piece, the destination and as much of the start
+ * square as is needed to tell it apart, so reading one means finding the one
+ * legal move in the position that fits, which only needs the moves of the
+ * pieces that could have made it. Check and annotation marks are accepted
+ * and ignored. Writing one works the other way round, adding the start file
+ * or rank only when another piece of the same kind could also reach the
+ * destination. This game has no castling, so {@code O-O} and {@code O-O-O}
+ * are never legal.
+ */
+public final class San {
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long RANK_1 = 0xFFL;
+    private static final String PIECE_LETTERS = "KQRBN";
+    private static final ChessPiece.PieceType[] PIECE_TYPES = {
+            ChessPiece.PieceType.KING, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    private San() {
+    }
+
+    /**
+     * Finds the move a SAN string stands for
+     *
+     * @param game the position the move is played in
+     * @param san  the move, such as {@code Nf3}
+     * @return the move
+     * @throws InvalidMoveException if the move is malformed, illegal or
+     *                              ambiguous
+     */
+    public static ChessMove parse(ChessGame game, String san) throws InvalidMoveException {
+        return Move.toChessMove(parse(game, san, new int[MoveGenerator.MAX_MOVES]));
+    }
+
+    /**
+     * Finds the encoded move a SAN string stands for, generating the legal
+     * moves into {@code moves}
+     */
+    static int parse(ChessGame game, CharSequence san, int[] moves) throws InvalidMoveException {
+        int end = san.length();
+        while (end > 0 && isMark(san.charAt(end - 1))) {
+            end--;
+        }
+        if (end > 0 && (san.charAt(0) == 'O' || san.charAt(0) == '0')) {
+            throw new InvalidMoveException("Castling is not part of this game: " + san);
+        }
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        int letter = end > 0 ? PIECE_LETTERS.indexOf(san.charAt(0)) : -1;
+        if (letter >= 0) {
+            type = PIECE_TYPES[letter];
+            start = 1;
+        }
+
+        ChessPiece.PieceType promotion = null;
+        if (type == ChessPiece.PieceType.PAWN && end - start >= 3) {
+            int promotionLetter = PIECE_LETTERS.indexOf(san.charAt(end - 1));
+            if (promotionLetter > 0) {
+                promotion = PIECE_TYPES[promotionLetter];
+                end -= san.charAt(end - 2) == '=' ? 2 : 1;
+            }
+        }
+
+        if (end - start < 2 || !isFile(san.charAt(end - 2)) || !isRank(san.charAt(end - 1))) {
+            throw new InvalidMoveException("Not a move: " + san);
+        }
+        int to = (san.charAt(end - 1) - '1') * 8 + (san.charAt(end - 2) - 'a');
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (isFile(c)) {
+                fromFile = c - 'a';
+            } else if (isRank(c)) {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != '-' && c != ':') {
+                throw new InvalidMoveException("Not a move: " + san);
+            }
+        }
+
+        if (type == ChessPiece.PieceType.PAWN && fromFile < 0) {
+            // A pawn that does not capture stays on its file
+            fromFile = to % 8;
+        }
+
+        // Only pieces of the right type on the given file and rank can make the move
+        ChessBoard board = game.getBoard();
+        long candidates = board.getPieces(game.getTeamTurn(), type);
+        if (fromFile >= 0) {
+            candidates &= FILE_A << fromFile;
+        }
+        if (fromRank >= 0) {
+            candidates &= RANK_1 << (8 * fromRank);
+        }
+        int found = Move.NONE;
+        for (; candidates != 0; candidates &= candidates - 1) {
+            int count = MoveGenerator.legalMoves(board, Long.numberOfTrailingZeros(candidates), moves);
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                if (Move.to(move) == to && Move.promotion(move) == promotion) {
+                    if (found != Move.NONE) {
+                        throw new InvalidMoveException("Ambiguous move: " + san);
+                    }
+                    found = move;
+                }
+            }
+        }
+        if (found == Move.NONE) {
+            throw new InvalidMoveException("Illegal move: " + san);
+        }
+        return found;
+    }
+
+    /**
+     * Writes a legal move in SAN, such as {@code Nbd7} or {@code exd8=Q#}
+     *
+     * @param game the position the move is played in; it is left unchanged
+     * @param move a legal move in that position
+     * @return the move in SAN
+     * @throws IllegalArgumentException if the start square is empty
+     */
+    public static String format(ChessGame game, ChessMove move) {
+        StringBuilder san = new StringBuilder(8);
+        play(game, Move.encode(move), new int[MoveGenerator.MAX_MOVES], san);
+        game.undoMove();
+        return san.toString();
+    }
+
+    /**
+     * Appends a legal encoded move in SAN, then plays it, since telling check
+     * from mate needs the position after the move. {@code moves} is used for
+     * generating moves.
+     */
+    static void play(ChessGame game, int move, int[] moves, StringBuilder san) {
+        ChessBoard board = game.getBoard();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPieceAt(from);
+        if (piece == null) {
+            throw new IllegalArgumentException("There is no piece to move on " + square(from));
+        }
+        boolean capture = board.getPieceAt(to) != null;
+
+        ChessPiece.PieceType type = piece.getPieceType();
+        if (type == ChessPiece.PieceType.PAWN) {
+            if (capture || from % 8 != to % 8) {
+                san.append((char) ('a' + from % 8));
+            }
+        } else {
+            san.append(PIECE_LETTERS.charAt(letterOf(type)));
+            appendDisambiguation(board, piece, from, to, moves, san);
+        }
+        if (capture) {
+            san.append('x');
+        }
+        san.append((char) ('a' + to % 8)).append((char) ('1' + to / 8));
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            san.append('=').append(PIECE_LETTERS.charAt(letterOf(promotion)));
+        }
+
+        game.doMove(move);
+        ChessGame.TeamColor opponent = game.getTeamTurn();
+        if (game.isInCheck(opponent)) {
+            san.append(MoveGenerator.hasLegalMove(board, opponent, moves) ? '+' : '#');
+        }
+    }
+
+    /**
+     * Adds the start file, rank or both when another piece of the same kind
+     * can also reach the destination: the file if it tells them apart, else
+     * the rank, else both
+     */
+    private static void appendDisambiguation(ChessBoard board, ChessPiece piece, int from, int to, int[] moves,
+                                             StringBuilder san) {
+        long others = board.getPieces(piece.getTeamColor(), piece.getPieceType()) & ~(1L << from);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (; others != 0; others &= others - 1) {
+            int other = Long.numberOfTrailingZeros(others);
+            int count = MoveGenerator.legalMoves(board, other, moves);
+            for (int i = 0; i < count; i++) {
+                if (Move.to(moves[i]) == to) {
+                    ambiguous = true;
+                    sameFile |= other % 8 == from % 8;
+                    sameRank |= other / 8 == from / 8;
+                    break;
+                }
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append((char) ('a' + from % 8));
+        } else if (!sameRank) {
+            san.append((char) ('1' + from / 8));
+        } else {
+            san.append((char) ('a' + from % 8)).append((char) ('1' + from / 8));
+        }
+    }
+
+    private static int letterOf(ChessPiece.PieceType type) {
+        for (int i = 0; i < PIECE_TYPES.length; i++) {
+            if (PIECE_TYPES[i] == type) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Pawns have no letter");
+    }
+
+    private static String square(int square) {
+        return "" + (char) ('a' + square % 8) + (char) ('1' + square / 8);
+    }
+
+    private static boolean isMark(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isFile(char c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(char c) {
+        return c >= '1' && c <= '8';
+    }
+}
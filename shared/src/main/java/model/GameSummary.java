@@ -0,0 +1,11 @@
+package model;
+
+/**
+ * The parts of a game shown in the lobby, without its board
+ */
+public record GameSummary(
+    int gameID,
+    String whiteUsername,
+    String blackUsername,
+    String gameName
+) {}
@@ -0,0 +1,90 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class GameBytesTest {
+
+    @Test
+    @DisplayName("New Game")
+    public void newGame() {
+        byte[] bytes = new ChessGame().toBytes();
+        Assertions.assertEquals(34, bytes.length, "a game with no moves should only hold its position");
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromBytes(bytes));
+    }
+
+    @Test
+    @DisplayName("Moves Are Kept")
+    public void movesAreKept() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/1P6/8/8/8/8/8/4K2R b - - 0 1");
+        game.makeMove(ChessMove.of(ChessPosition.of(8, 5), ChessPosition.of(8, 4), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 2), ChessPosition.of(8, 2), ChessPiece.PieceType.KNIGHT));
+        game.makeMove(ChessMove.of(ChessPosition.of(8, 4), ChessPosition.of(8, 5), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(1, 8), ChessPosition.of(8, 8), null));
+
+        Assertions.assertEquals(4, game.getMoveCount());
+        Assertions.assertEquals(ChessMove.of(ChessPosition.of(1, 8), ChessPosition.of(8, 8), null), game.getLastMove());
+
+        byte[] bytes = game.toBytes();
+        Assertions.assertEquals(34 + 2 * 4, bytes.length);
+        ChessGame read = ChessGame.fromBytes(bytes);
+        Assertions.assertEquals(game, read);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, read.getTeamTurn());
+        Assertions.assertEquals(ChessMove.of(ChessPosition.of(1, 8), ChessPosition.of(8, 8), null), read.undoMove());
+        Assertions.assertEquals(ChessMove.of(ChessPosition.of(8, 4), ChessPosition.of(8, 5), null), read.undoMove());
+        Assertions.assertEquals(ChessMove.of(ChessPosition.of(7, 2), ChessPosition.of(8, 2), ChessPiece.PieceType.KNIGHT),
+                read.undoMove());
+        read.undoMove();
+        Assertions.assertFalse(read.canUndoMove());
+        Assertions.assertEquals(0, read.getMoveCount());
+        Assertions.assertNull(read.getLastMove());
+        Assertions.assertEquals("4k3/1P6/8/8/8/8/8/4K2R b - - 0 1", read.toFen(),
+                "the game should start where the original started");
+    }
+
+    @Test
+    @DisplayName("Random Games")
+    public void randomGames() {
+        Random random = new Random(23);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int i = 0; i < 200; i++) {
+            ChessGame game = new ChessGame();
+            for (int ply = random.nextInt(120); ply > 0; ply--) {
+                int count = MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moves);
+                if (count == 0) {
+                    break;
+                }
+                game.doMove(moves[random.nextInt(count)]);
+            }
+
+            ChessGame read = ChessGame.fromBytes(game.toBytes());
+            Assertions.assertEquals(game, read);
+            Assertions.assertEquals(game.getZobristKey(), read.getZobristKey());
+            Assertions.assertEquals(game.isThreefoldRepetition(), read.isThreefoldRepetition());
+            Assertions.assertArrayEquals(game.toBytes(), read.toBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Malformed Bytes")
+    public void malformedBytes() {
+        byte[] valid = new ChessGame().toBytes();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(new byte[]{1, 2, 3}));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromBytes(Arrays.copyOf(valid, valid.length + 1)));
+
+        byte[] badPiece = valid.clone();
+        badPiece[20] = (byte) 0xFF;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(badPiece));
+
+        byte[] emptySquare = Arrays.copyOf(valid, valid.length + 2);
+        emptySquare[valid.length] = 0;
+        emptySquare[valid.length + 1] = 20;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromBytes(emptySquare),
+                "a move from an empty square should be rejected");
+    }
+}
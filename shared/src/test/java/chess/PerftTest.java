@@ -0,0 +1,142 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Perft node counts from the standard reference positions. The engine has no
+ * castling or en passant, so only positions and depths where neither can
+ * occur are used, which keeps the published counts exact.
+ */
+public class PerftTest {
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        ChessGame game = new ChessGame();
+
+        assertPerft(game, 20, 400, 8902, 197281);
+    }
+
+    @Test
+    @DisplayName("Middlegame Without Castling Rights")
+    public void middlegame() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | | |r|k| |
+                | |p|p| |q|p|p|p|
+                |p| |n|p| |n| | |
+                | | |b| |p| |B| |
+                | | |B| |P| |b| |
+                |P| |N|P| |N| | |
+                | |P|P| |Q|P|P|P|
+                |R| | | | |R|K| |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        assertPerft(game, 46, 2079, 89890);
+    }
+
+    @Test
+    @DisplayName("Promotions")
+    public void promotions() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |n| |n| | | | | |
+                |P|P|P|k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K|p|p|p|
+                | | | | | |N| |N|
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        assertPerft(game, 24, 496, 9483, 182838);
+    }
+
+    @Test
+    @DisplayName("Rook Endgame")
+    public void rookEndgame() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                |K|P| | | | | |r|
+                | |R| | | |p| |k|
+                | | | | | | | | |
+                | | | | |P| |P| |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        assertPerft(game, 14, 191);
+    }
+
+    @Test
+    @DisplayName("Perft Leaves Game Unchanged")
+    public void perftRestoresPosition() {
+        ChessGame game = new ChessGame();
+        ChessGame untouched = new ChessGame();
+
+        Perft.perft(game, 3);
+
+        Assertions.assertEquals(untouched, game, "perft should undo every move it makes");
+        Assertions.assertEquals(untouched.getZobristKey(), game.getZobristKey(),
+                "perft should leave the position key unchanged");
+    }
+
+    @Test
+    @DisplayName("Parallel Perft Matches Sequential")
+    public void parallelPerft() {
+        ChessGame game = new ChessGame();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(Perft.perft(game, 5), ParallelPerft.perft(game, 5, pool),
+                    "parallel and sequential counts should match");
+            Assertions.assertEquals(new ChessGame(), game, "parallel perft should not touch the game");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel Divide And Bulk Perft")
+    public void parallelDivide() throws InvalidMoveException {
+        ChessGame start = new ChessGame();
+        ChessGame afterMove = new ChessGame(start);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            afterMove.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+            Map<ChessMove, Long> divide = ParallelPerft.divide(start, 4, pool);
+            Assertions.assertEquals(20, divide.size(), "divide should have one entry per legal move");
+            Assertions.assertEquals(197281, divide.values().stream().mapToLong(Long::longValue).sum(),
+                    "divide counts should add up to the perft count");
+            Assertions.assertEquals(Perft.perft(afterMove, 3),
+                    divide.get(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)),
+                    "divide count for e2e4 should match perft after e2e4");
+
+            Assertions.assertArrayEquals(new long[]{8902, Perft.perft(afterMove, 3)},
+                    ParallelPerft.perftAll(List.of(start, afterMove), 3, pool));
+            Assertions.assertEquals(new ChessGame(), start, "copying a game should not share its board");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertPerft(ChessGame game, long... expected) {
+        for (int depth = 1; depth <= expected.length; depth++) {
+            Assertions.assertEquals(expected[depth - 1], Perft.perft(game, depth),
+                    "Wrong node count at depth " + depth);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+public class PieceSquareTableTest {
+
+    @Test
+    @DisplayName("Incremental Score Matches A Full Recount")
+    public void incrementalScore() {
+        Random random = new Random(5);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int gameNumber = 0; gameNumber < 50; gameNumber++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 100; ply++) {
+                int count = MoveGenerator.legalMoves(game.getBoard(), game.getTeamTurn(), moves);
+                if (count == 0) {
+                    break;
+                }
+                game.doMove(moves[random.nextInt(count)]);
+
+                ChessBoard recount = new ChessBoard(game.getBoard());
+                recount.setPieceSquareTable(PieceSquareTable.DEFAULT);
+                Assertions.assertEquals(recount.getPieceSquareScore(), game.getBoard().getPieceSquareScore());
+            }
+            while (game.canUndoMove()) {
+                game.undoMove();
+            }
+            Assertions.assertEquals(0, game.getBoard().getPieceSquareScore(),
+                    "the starting position is symmetric, so it should score 0");
+        }
+    }
+
+    @Test
+    @DisplayName("Black Values Mirror White")
+    public void mirrored() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | |n| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |N| | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        Assertions.assertEquals(0, board.getPieceSquareScore());
+        Assertions.assertEquals(320 + 10, PieceSquareTable.DEFAULT.value(
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT), ChessPosition.of(3, 4)));
+        Assertions.assertEquals(-(320 + 10), PieceSquareTable.DEFAULT.value(
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT), ChessPosition.of(6, 4)));
+    }
+
+    @Test
+    @DisplayName("Weights Round Trip Through Text")
+    public void roundTrip() throws IOException {
+        StringWriter text = new StringWriter();
+        PieceSquareTable.DEFAULT.write(text);
+
+        PieceSquareTable read = PieceSquareTable.read(new StringReader("# default weights\n" + text));
+        Assertions.assertEquals(PieceSquareTable.DEFAULT, read);
+    }
+
+    @Test
+    @DisplayName("Loaded Weights Rescore The Board")
+    public void customWeights() throws IOException {
+        StringWriter text = new StringWriter();
+        PieceSquareTable.DEFAULT.write(text);
+        PieceSquareTable freeQueens = PieceSquareTable.read(new StringReader(
+                text.toString().replace("QUEEN 900", "QUEEN 0")));
+
+        ChessGame game = new ChessGame();
+        game.getBoard().addPiece(ChessPosition.of(8, 4), null);
+        Assertions.assertEquals(900 - 10, game.getBoard().getPieceSquareScore());
+        game.getBoard().setPieceSquareTable(freeQueens);
+        Assertions.assertEquals(-10, game.getBoard().getPieceSquareScore(),
+                "a queen should be worth only its square bonus under the loaded weights");
+    }
+
+    @Test
+    @DisplayName("Malformed Weights Are Rejected")
+    public void malformed() throws IOException {
+        Assertions.assertThrows(IOException.class,
+                () -> PieceSquareTable.read(new StringReader("PAWN 100 1 2 3")));
+        Assertions.assertThrows(IOException.class,
+                () -> PieceSquareTable.read(new StringReader("DRAGON 100")));
+        Assertions.assertThrows(IOException.class,
+                () -> PieceSquareTable.read(new StringReader("")), "every piece type is required");
+
+        StringWriter text = new StringWriter();
+        PieceSquareTable.DEFAULT.write(text);
+        IOException tooLarge = Assertions.assertThrows(IOException.class, () -> PieceSquareTable.read(
+                new StringReader(text.toString().replace("QUEEN 900", "QUEEN 2000"))));
+        Assertions.assertTrue(tooLarge.getMessage().contains("forced mate"), tooLarge.getMessage());
+    }
+}
@@ -0,0 +1,55 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Positions, pieces and moves handed out by the engine and by Gson are the
+ * shared instances from the {@code of} factories
+ */
+public class SharedInstanceTest {
+
+    @Test
+    @DisplayName("Factories Return Shared Instances")
+    public void factoriesShareInstances() {
+        Assertions.assertSame(ChessPosition.of(4, 5), ChessPosition.of(4, 5));
+        Assertions.assertEquals(new ChessPosition(4, 5), ChessPosition.of(4, 5));
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertSame(ChessMove.of(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN),
+                ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(new ChessPosition(0, 9), ChessPosition.of(0, 9),
+                "positions off the board should still be created");
+    }
+
+    @Test
+    @DisplayName("Engine Uses Shared Instances")
+    public void engineSharesInstances() {
+        ChessGame game = new ChessGame();
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                game.getBoard().getPiece(ChessPosition.of(1, 5)));
+        for (ChessMove move : game.validMoves(ChessPosition.of(2, 5))) {
+            Assertions.assertSame(ChessMove.of(move.getStartPosition(), move.getEndPosition(), null), move);
+            Assertions.assertSame(ChessPosition.of(2, 5), move.getStartPosition());
+        }
+    }
+
+    @Test
+    @DisplayName("Gson Keeps Its Format And Resolves Shared Instances")
+    public void gsonResolvesSharedInstances() {
+        Gson gson = new Gson();
+        ChessMove promotion = ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN);
+        String json = gson.toJson(promotion);
+
+        Assertions.assertEquals("{\"startPosition\":{\"row\":7,\"column\":1},"
+                + "\"endPosition\":{\"row\":8,\"column\":1},\"promotionPiece\":\"QUEEN\"}", json);
+        Assertions.assertSame(promotion, gson.fromJson(json, ChessMove.class));
+        Assertions.assertSame(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null),
+                gson.fromJson("{\"startPosition\":{\"row\":2,\"column\":5},"
+                        + "\"endPosition\":{\"row\":4,\"column\":5}}", ChessMove.class));
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                gson.fromJson("{\"pieceColor\":\"BLACK\",\"type\":\"ROOK\"}", ChessPiece.class));
+    }
+}
@@ -0,0 +1,90 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class UndoMoveTest {
+
+    @Test
+    @DisplayName("Undo Restores Captures, Turn And Key")
+    public void undoRestoresPosition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long startKey = game.getZobristKey();
+        ChessMove capture = move(4, 5, 5, 4);
+
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 4, 5, 4));
+        game.makeMove(capture);
+
+        Assertions.assertEquals(capture, game.undoMove());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn(), "the turn should go back to white");
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN),
+                game.getBoard().getPiece(new ChessPosition(5, 4)), "the captured pawn should be restored");
+
+        game.undoMove();
+        game.undoMove();
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(startKey, game.getZobristKey());
+        Assertions.assertFalse(game.canUndoMove());
+        Assertions.assertThrows(IllegalStateException.class, game::undoMove);
+    }
+
+    @Test
+    @DisplayName("Undo Promotion")
+    public void undoPromotion() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                |P| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        ChessGame before = new ChessGame(game);
+
+        game.makeMove(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN));
+        game.undoMove();
+
+        Assertions.assertEquals(before, game, "the queen should turn back into a pawn");
+    }
+
+    @Test
+    @DisplayName("JSON Carries Only The Position")
+    public void serializationLeavesOutHistory() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 4, 4, 4));
+        game.makeMove(move(8, 7, 6, 6));
+
+        String json = gson.toJson(game);
+        Assertions.assertFalse(json.contains("History"), "the move record should not be sent with the game");
+
+        ChessGame reloaded = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game, reloaded);
+        Assertions.assertFalse(reloaded.canUndoMove());
+    }
+
+    @Test
+    @DisplayName("Moves Can Be Taken Back After Reloading From Bytes")
+    public void undoAfterBytes() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 4, 4, 4));
+        game.makeMove(move(8, 7, 6, 6));
+
+        ChessGame reloaded = ChessGame.fromBytes(game.toBytes());
+        reloaded.undoMove();
+        reloaded.undoMove();
+
+        Assertions.assertEquals(new ChessGame(), reloaded);
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}
@@ -0,0 +1,94 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class LazySmpSearcherTest {
+
+    private ExecutorService helpers;
+    private LazySmpSearcher searcher;
+
+    @BeforeEach
+    public void setUp() {
+        helpers = Executors.newFixedThreadPool(3);
+        searcher = new LazySmpSearcher(new TranspositionTable(8), helpers);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        helpers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Threads Agree On A Forced Mate")
+    public void findsMate() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        SearchResult result = searcher.search(game, SearchLimits.depth(5), 4);
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                result.bestMove());
+        Assertions.assertEquals(Searcher.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Helpers Stop With The Main Search")
+    public void helpersStop() {
+        ChessGame game = new ChessGame();
+
+        SearchResult result = searcher.search(game, SearchLimits.depth(5), 4);
+        SearchResult again = searcher.search(game, SearchLimits.millis(50), 4);
+
+        Assertions.assertTrue(result.depth() >= 5);
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertNotNull(again.bestMove());
+        Assertions.assertEquals(new ChessGame(), game, "search should not modify the game");
+    }
+
+    @Test
+    @DisplayName("Single Thread And Bad Thread Counts")
+    public void threadCounts() {
+        Assertions.assertEquals(4, searcher.search(new ChessGame(), SearchLimits.depth(4), 1).depth());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> searcher.search(new ChessGame(), SearchLimits.depth(4), 0));
+    }
+
+    @Test
+    @DisplayName("Every Thread Uses The Given Weights")
+    public void customWeights() throws IOException {
+        StringWriter text = new StringWriter();
+        PieceSquareTable.DEFAULT.write(text);
+        PieceSquareTable freeQueens = PieceSquareTable.read(new StringReader(
+                text.toString().replace("QUEEN 900", "QUEEN 0")));
+        LazySmpSearcher weighted = new LazySmpSearcher(new TranspositionTable(8), null, freeQueens, helpers);
+        ChessGame game = new ChessGame();
+        game.getBoard().addPiece(ChessPosition.of(8, 4), null);
+
+        Assertions.assertTrue(searcher.search(game, SearchLimits.depth(3), 4).score() > 600,
+                "white should be a queen up under the default weights");
+        Assertions.assertTrue(Math.abs(weighted.search(game, SearchLimits.depth(3), 4).score()) < 300,
+                "a missing queen should cost nothing under the given weights");
+    }
+}
@@ -0,0 +1,100 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+public class OpeningBookTest {
+
+    private static final ChessMove E4 = ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+    private static final ChessMove D4 = ChessMove.of(ChessPosition.of(2, 4), ChessPosition.of(4, 4), null);
+    private static final ChessMove E5 = ChessMove.of(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Book Moves Are Found By Position")
+    public void lookup() throws IOException, InvalidMoveException {
+        ChessGame start = new ChessGame();
+        ChessGame afterE4 = new ChessGame();
+        afterE4.makeMove(E4);
+
+        OpeningBook book = write(new OpeningBook.Builder()
+                .add(afterE4, E5, 5)
+                .add(start, D4, 10)
+                .add(start, E4, 30));
+
+        Assertions.assertEquals(3, book.size());
+        Assertions.assertEquals(List.of(new OpeningBook.BookMove(E4, 30), new OpeningBook.BookMove(D4, 10)),
+                book.moves(start), "moves should be listed highest weight first");
+        Assertions.assertEquals(List.of(new OpeningBook.BookMove(E5, 5)), book.moves(afterE4));
+
+        afterE4.makeMove(E5);
+        Assertions.assertTrue(book.moves(afterE4).isEmpty(), "a position not in the book has no moves");
+        Assertions.assertNull(book.pickMove(afterE4, new Random(1)));
+    }
+
+    @Test
+    @DisplayName("Illegal Book Moves Are Skipped")
+    public void illegalMoves() throws IOException {
+        ChessGame start = new ChessGame();
+        ChessMove e2e5 = ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(5, 5), null);
+
+        OpeningBook book = write(new OpeningBook.Builder().add(start, e2e5, 100).add(start, D4, 1));
+
+        Assertions.assertEquals(List.of(new OpeningBook.BookMove(D4, 1)), book.moves(start));
+        Assertions.assertEquals(D4, book.pickMove(start, new Random(1)));
+    }
+
+    @Test
+    @DisplayName("Moves Are Picked In Proportion To Weight")
+    public void weightedPick() throws IOException {
+        ChessGame start = new ChessGame();
+        OpeningBook book = write(new OpeningBook.Builder().add(start, E4, 3).add(start, D4, 1));
+
+        Random random = new Random(17);
+        int e4 = 0;
+        for (int i = 0; i < 4000; i++) {
+            if (book.pickMove(start, random).equals(E4)) {
+                e4++;
+            }
+        }
+        Assertions.assertTrue(e4 > 2800 && e4 < 3200, "e4 should be picked about 3 times in 4, was " + e4);
+    }
+
+    @Test
+    @DisplayName("Malformed Book Is Rejected")
+    public void malformed() throws IOException {
+        Path file = directory.resolve("broken.bin");
+        Files.write(file, new byte[15]);
+
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+
+    @Test
+    @DisplayName("Book With Other Keys Is Rejected")
+    public void otherKeys() throws IOException {
+        Path file = directory.resolve("polyglot.bin");
+        new OpeningBook.Builder(game -> 0x463B96181691FC9CL).add(new ChessGame(), E4, 1).write(file);
+
+        IOException e = Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+        Assertions.assertTrue(e.getMessage().contains("Polyglot"), e.getMessage());
+        Assertions.assertEquals(1, OpeningBook.open(file, game -> 0x463B96181691FC9CL).size(),
+                "the book should open with keys that match it");
+    }
+
+    private OpeningBook write(OpeningBook.Builder builder) throws IOException {
+        Path file = directory.resolve("book.bin");
+        builder.write(file);
+        return OpeningBook.open(file);
+    }
+}
@@ -0,0 +1,84 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class SearcherTest {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        SearchResult result = new Searcher().search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                result.bestMove(), "the rook should deliver back rank mate");
+        Assertions.assertEquals(Searcher.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Captures A Hanging Queen")
+    public void capturesHangingQueen() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |q| | | | |
+                | | | | | | | | |
+                | | |N| | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        SearchResult result = new Searcher().search(game, SearchLimits.depth(3));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(3, 3), new ChessPosition(5, 4), null),
+                result.bestMove());
+    }
+
+    @Test
+    @DisplayName("Node Budget Is Respected And Repeatable")
+    public void nodeBudget() {
+        ChessGame game = new ChessGame();
+
+        SearchResult first = new Searcher().search(game, SearchLimits.nodes(20_000));
+        SearchResult second = new Searcher().search(game, SearchLimits.nodes(20_000));
+
+        Assertions.assertTrue(first.nodes() <= 20_000, "search should stop at its node budget");
+        Assertions.assertTrue(first.depth() >= 1);
+        Assertions.assertEquals(first, second, "a node budget should give the same result every time");
+        Assertions.assertEquals(new ChessGame(), game, "search should not modify the game");
+    }
+
+    @Test
+    @DisplayName("No Move When Checkmated")
+    public void checkmated() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+
+        SearchResult result = new Searcher().search(game, SearchLimits.millis(100));
+
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-Searcher.MATE, result.score());
+    }
+}
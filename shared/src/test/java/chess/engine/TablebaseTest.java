@@ -0,0 +1,149 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TablebaseTest {
+
+    @TempDir
+    static Path directory;
+
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        TablebaseGenerator.generate(directory, "KQvK");
+        tablebase = new Tablebase(directory);
+    }
+
+    @Test
+    @DisplayName("Mate In One Is Found")
+    public void mateInOne() {
+        ChessGame game = game("""
+                |k| | | | | | | |
+                | | | | | | | |Q|
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(new Tablebase.Probe(Tablebase.Outcome.WIN, 1), tablebase.probe(game));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(new Tablebase.Probe(Tablebase.Outcome.LOSS, 2), tablebase.probe(game),
+                "the only king move leads to mate in one");
+    }
+
+    @Test
+    @DisplayName("Colors Are Swapped When Black Is Stronger")
+    public void flipped() {
+        ChessGame game = game("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |k| | | | | | |
+                | | | | | | | |q|
+                |K| | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+
+        Assertions.assertEquals(new Tablebase.Probe(Tablebase.Outcome.WIN, 1), tablebase.probe(game));
+    }
+
+    @Test
+    @DisplayName("Lost Queen Is A Draw")
+    public void hangingQueen() {
+        ChessGame game = game("""
+                |k| | | | | | | |
+                | |Q| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.BLACK);
+
+        Assertions.assertEquals(new Tablebase.Probe(Tablebase.Outcome.DRAW, 0), tablebase.probe(game));
+    }
+
+    @Test
+    @DisplayName("Longest Mate Matches Known Result")
+    public void longestMate() throws IOException {
+        int longest = 0;
+        for (byte value : Files.readAllBytes(directory.resolve("KQvK.dtm"))) {
+            longest = Math.max(longest, (value & 0xFF) - 2);
+        }
+        Assertions.assertEquals(20, longest, "king and queen mate a lone king in at most 10 moves");
+    }
+
+    @Test
+    @DisplayName("Positions Without Tables Are Not Covered")
+    public void missingTable() {
+        ChessGame game = game("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |R|
+                """, ChessGame.TeamColor.WHITE);
+
+        Assertions.assertNull(tablebase.probe(game));
+        Assertions.assertNull(tablebase.probe(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Search Plays Tablebase Mates")
+    public void searchUsesTables() {
+        ChessGame game = game("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K|Q| | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        Tablebase.Probe probe = tablebase.probe(game);
+        Assertions.assertEquals(Tablebase.Outcome.WIN, probe.outcome());
+
+        SearchResult result = new Searcher(new TranspositionTable(1), tablebase).search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(Searcher.MATE - probe.distance(), result.score(),
+                "the search should report the table's distance to mate");
+        Assertions.assertEquals(1, result.depth(), "one ply reaches the table from every move");
+    }
+
+    @Test
+    @DisplayName("Bad Table Names Are Rejected")
+    public void badNames() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TablebaseGenerator.generate(directory, "KvKQ"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TablebaseGenerator.generate(directory, "KQRBvK"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TablebaseGenerator.generate(directory, "KQK"));
+    }
+
+    private static ChessGame game(String board, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(board));
+        game.setTeamTurn(turn);
+        return game;
+    }
+}
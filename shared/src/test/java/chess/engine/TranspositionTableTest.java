@@ -0,0 +1,73 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTest {
+
+    @Test
+    @DisplayName("Stored Results Read Back")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.encode(12, 28, null);
+        long key = new ChessGame().getZobristKey();
+
+        Assertions.assertEquals(0L, table.probe(key), "an empty table should miss");
+        table.store(key, move, -1234, 7, TranspositionTable.UPPER);
+
+        long entry = table.probe(key);
+        Assertions.assertEquals(move, TranspositionTable.move(entry));
+        Assertions.assertEquals(-1234, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(entry));
+        Assertions.assertEquals(0L, table.probe(key ^ (1L << 62)), "a different key in the same slot should miss");
+    }
+
+    @Test
+    @DisplayName("Deeper Results Are Kept Within A Search")
+    public void replacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 5L;
+        long shallow = deep + ((long) table.capacity() << 20);
+
+        table.store(deep, Move.NONE, 10, 9, TranspositionTable.EXACT);
+        table.store(shallow, Move.NONE, 20, 2, TranspositionTable.EXACT);
+        Assertions.assertNotEquals(0L, table.probe(deep), "a shallower result should not evict a deeper one");
+        Assertions.assertEquals(0L, table.probe(shallow));
+
+        table.newSearch();
+        table.store(shallow, Move.NONE, 20, 2, TranspositionTable.EXACT);
+        Assertions.assertEquals(20, TranspositionTable.score(table.probe(shallow)),
+                "results from an earlier search should be replaced");
+    }
+
+    @Test
+    @DisplayName("Size Is Rounded To A Power Of Two")
+    public void sizing() {
+        Assertions.assertEquals(65536, new TranspositionTable(1).capacity());
+        Assertions.assertEquals(131072, new TranspositionTable(3).capacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    @DisplayName("Searchers Can Share A Table")
+    public void sharedTable() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(4);
+        SearchResult[] results = new SearchResult[4];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> results[index] = new Searcher(table).search(new ChessGame(), SearchLimits.depth(5)));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (SearchResult result : results) {
+            Assertions.assertEquals(5, result.depth());
+            Assertions.assertNotNull(result.bestMove());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package chess.pgn;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class PgnReaderTest {
+
+    private static final String GAMES = """
+            [Event "Casual"]
+            [White "Anna \\"The Rook\\" Müller"]
+            [Black "Bob"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Bc4 {Italian idea} Nc6 (2... Nf6 3. d3 (3. Nc3) Bc5) 3. Qh5 $1 Nf6?? 4. Qxf7# 1-0
+
+            [Event "Promotion"]
+            [FEN "8/P7/8/8/8/8/8/k1K5 w - - 0 1"]
+
+            1.a8=Q# 1-0
+
+            [Event "Castles"]
+            1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 4. O-O Nf6 1/2-1/2
+
+            [Event "Unfinished"]
+            1. d4 d5 2. c4
+            [Event "Last"]
+            1. Nf3 Nf6 2. Ng1 Ng8 3. Nf3 Nf6 4. Ng1 Ng8 1/2-1/2
+            """;
+
+    @Test
+    @DisplayName("Games Are Read In Order")
+    public void readGames() throws IOException, InvalidMoveException {
+        try (PgnReader reader = reader(GAMES)) {
+            PgnGame mate = reader.next();
+            Assertions.assertEquals("Anna \"The Rook\" Müller", mate.tag("White"));
+            Assertions.assertEquals("1-0", mate.result());
+            Assertions.assertTrue(mate.game().isInCheckmate(ChessGame.TeamColor.BLACK),
+                    "comments, variations and annotations should be skipped");
+
+            PgnGame promotion = reader.next();
+            Assertions.assertEquals("Q7/8/8/8/8/8/8/k1K5 b - - 0 1", promotion.game().toFen(),
+                    "the game should start from its FEN tag");
+
+            Assertions.assertThrows(InvalidMoveException.class, reader::next, "castling is not supported");
+
+            PgnGame unfinished = reader.next();
+            Assertions.assertEquals("Unfinished", unfinished.tag("Event"));
+            Assertions.assertEquals("*", unfinished.result());
+            Assertions.assertEquals("rnbqkbnr/ppp1pppp/8/3p4/2PP4/8/PP2PPPP/RNBQKBNR b - - 0 1",
+                    unfinished.game().toFen());
+
+            PgnGame last = reader.next();
+            Assertions.assertEquals(new ChessGame(), last.game());
+            Assertions.assertTrue(last.game().isThreefoldRepetition(), "moves should be replayed through the game");
+            Assertions.assertEquals(8, countUndos(last.game()));
+
+            Assertions.assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("SAN Disambiguation")
+    public void disambiguation() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | |R|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |p| |
+                |R| | | |K| | | |
+                """));
+
+        Assertions.assertEquals(move(5, 8, 5, 5), San.parse(game, "Rhe5"));
+        Assertions.assertEquals(move(5, 1, 3, 1), San.parse(game, "R5a3"));
+        Assertions.assertEquals(move(1, 1, 3, 1), San.parse(game, "R1a3"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.parse(game, "Re5"), "two rooks can reach e5");
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.parse(game, "Ra3"), "two rooks can reach a3");
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.parse(game, "Nf3"), "there is no knight");
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.parse(game, "Rz9"));
+    }
+
+    @Test
+    @DisplayName("SAN Pawn Moves And Promotions")
+    public void pawnMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | |n| |k| | | |
+                | |P| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.QUEEN),
+                San.parse(game, "b8=Q+"));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 3), ChessPiece.PieceType.KNIGHT),
+                San.parse(game, "bxc8N"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> San.parse(game, "b8"), "a promotion needs a piece");
+    }
+
+    @Test
+    @DisplayName("Move Numbers Without Spaces")
+    public void unspacedMoveNumbers() throws IOException, InvalidMoveException {
+        PgnReader spaced = reader("1. e4 e5 2. Nf3 Nc6 3. Bb5 *");
+        PgnReader unspaced = reader("""
+                1.e4 1...e5 2.Nf3 2... Nc6 3 ...Bb5 *
+
+                [SetUp "1"]
+                [FEN "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1"]
+
+                1...e5 2.Nf3 *
+                """);
+
+        Assertions.assertEquals(spaced.next().game(), unspaced.next().game());
+        ChessGame fromBlack = unspaced.next().game();
+        Assertions.assertEquals(2, fromBlack.getMoveCount(), "a first move by black should be read");
+        Assertions.assertNull(unspaced.next());
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    private static int countUndos(ChessGame game) {
+        int count = 0;
+        while (game.canUndoMove()) {
+            game.undoMove();
+            count++;
+        }
+        return count;
+    }
+
+    private static PgnReader reader(String pgn) {
+        return new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,130 @@
+package chess.pgn;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class PgnWriterTest {
+
+    @Test
+    @DisplayName("SAN Disambiguation")
+    public void disambiguation() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | |R|
+                | | | | | | | | |
+                | | | | | | |p| |
+                | | | | | | | | |
+                |R| | |N|K| | |N|
+                """));
+
+        Assertions.assertEquals("Rhe5+", San.format(game, move(5, 8, 5, 5)));
+        Assertions.assertEquals("R5a3", San.format(game, move(5, 1, 3, 1)));
+        Assertions.assertEquals("R1a2", San.format(game, move(1, 1, 2, 1)));
+        Assertions.assertEquals("Ra8+", San.format(game, move(5, 1, 8, 1)));
+        Assertions.assertEquals("Ndf2", San.format(game, move(1, 4, 2, 6)));
+        Assertions.assertEquals("Nc3", San.format(game, move(1, 4, 3, 3)));
+        Assertions.assertEquals("Nxg3", San.format(game, move(1, 8, 3, 7)));
+        Assertions.assertFalse(game.canUndoMove(), "formatting should leave the game unchanged");
+    }
+
+    @Test
+    @DisplayName("SAN Pawn Moves And Mate")
+    public void pawnMoves() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | |n| | | | |k|
+                | |P| | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                """));
+
+        Assertions.assertEquals("b8=Q", San.format(game, new ChessMove(new ChessPosition(7, 2),
+                new ChessPosition(8, 2), ChessPiece.PieceType.QUEEN)));
+        Assertions.assertEquals("bxc8=R#", San.format(game, new ChessMove(new ChessPosition(7, 2),
+                new ChessPosition(8, 3), ChessPiece.PieceType.ROOK)));
+        Assertions.assertEquals("e4", San.format(game, move(2, 5, 4, 5)));
+    }
+
+    @Test
+    @DisplayName("Round Trip")
+    public void roundTrip() throws IOException, InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K2R b - - 0 1");
+        game.makeMove(move(8, 5, 8, 4));
+        for (int i = 0; i < 30; i++) {
+            game.makeMove(i % 2 == 0 ? move(1, 1, 2, 1) : move(2, 1, 1, 1));
+            game.makeMove(i % 2 == 0 ? move(8, 4, 8, 5) : move(8, 5, 8, 4));
+        }
+
+        StringWriter text = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(text)) {
+            writer.write(Map.of("White", "Alice", "Annotator", "Bob \"B\""), game);
+        }
+        String pgn = text.toString();
+
+        Assertions.assertTrue(pgn.startsWith("""
+                [Event "?"]
+                [Site "?"]
+                [Date "????.??.??"]
+                [Round "?"]
+                [White "Alice"]
+                [Black "?"]
+                [Result "*"]
+                [SetUp "1"]
+                [FEN "4k3/8/8/8/8/8/8/R3K2R b - - 0 1"]
+                [Annotator "Bob \\"B\\""]
+
+                1... Kd8 2. Ra2 Ke8 3. Ra1 Kd8"""), pgn);
+        for (String line : pgn.split("\n")) {
+            Assertions.assertTrue(line.length() <= 80, "PGN lines should not be over 80 characters");
+        }
+
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)))) {
+            PgnGame read = reader.next();
+            Assertions.assertEquals("Bob \"B\"", read.tag("Annotator"));
+            Assertions.assertEquals(game.toFen(), read.game().toFen());
+            Assertions.assertEquals(pgn, write(read));
+            Assertions.assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Result From Final Position")
+    public void result() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        Assertions.assertEquals("*", PgnWriter.result(game));
+        game.makeMove(move(2, 7, 4, 7));
+        game.makeMove(move(8, 4, 4, 8));
+        Assertions.assertEquals("0-1", PgnWriter.result(game));
+        Assertions.assertEquals("1/2-1/2", PgnWriter.result(ChessGame.fromFen("k7/2Q5/1K6/8/8/8/8/8 b")));
+    }
+
+    private static String write(PgnGame game) throws IOException {
+        StringWriter text = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(text)) {
+            writer.write(game);
+        }
+        return text.toString();
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+}